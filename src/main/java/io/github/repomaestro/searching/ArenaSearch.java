@@ -0,0 +1,188 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import io.github.repomaestro.searching.algorithm.*;
+import io.github.repomaestro.searching.fringe.IndexedHeap;
+import io.github.repomaestro.searching.fringe.TieBreaking;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * This class represents the tree search of {@link TreeEngine} over the integer handles of a {@link NodeArena}
+ * instead of {@link Node} objects.
+ * 
+ * <p>
+ * The fringe holds handles as well: the depth first search pops them from an int stack, the breadth first search
+ * pops them in the order they were added to the arena (which is the order of a queue), and the best-first searches
+ * pop them from an {@link IndexedHeap} of their costs. The {@link Node}s are created only for the path to the goal.
+ * The ties among the nodes of equal cost are broken by an optional comparator of the nodes, and then last-in first-out.
+ * The policies of {@link TieBreaking} are compared on the arrays of the arena, any other comparator is given the nodes
+ * of the tied handles without their parents, created once per handle while it is in the heap. The arrays are held by
+ * a {@link SearchArena}, which may be reused by the next search.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine}.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class ArenaSearch<T extends State> {
+    private final Node<T> initialNode;
+    private final List<Move<T>> moveList;
+    private final SearchArena storage;
+    private final NodeArena<T> arena;
+    private final Algorithm A;
+    private final ToIntFunction<T> heuristic;
+    private final Comparator<? super Node<T>> ties;
+    
+    //Nodes of the handles in the heap which have been compared by the comparator of the ties, indexed by handle.
+    private Node<T>[] nodes;
+    
+    ArenaSearch(Node<T> initialNode, List<Move<T>> moveList, SearchArena storage, StateCodec<T> codec, Algorithm A, ToIntFunction<T> heuristic, Comparator<? super Node<T>> ties) {
+        this.initialNode = initialNode;
+        this.moveList = moveList;
+        this.storage = storage;
+        this.arena = storage.nodes();
+        this.A = A;
+        this.heuristic = heuristic;
+        this.ties = ties;
+        
+        arena.reset(codec);
+        if (ties == null || ties == TieBreaking.LIFO.<T>comparator())
+            storage.ties = (a, b) -> Integer.compare(b, a);
+        else if (ties == TieBreaking.HIGHER_G.<T>comparator())
+            storage.ties = this::compareHigherG;
+        else
+            storage.ties = this::compareTies;
+    }
+    
+    /**
+     * Searches for a path from the initial node to the goal, expanding at most to the given depth.
+     * The heap of the arena must be empty.
+     * @param evaluator the goal test
+     * @param maxDepth maximum depth to search for the solution
+     * @param firstVisit the closed set of the search, which returns true for a state that is not generated before
+     * @return path to the goal, empty list if there is none within the maximum depth
+     */
+    List<Node<T>> pathTo(Predicate<T> evaluator, int maxDepth, Predicate<? super T> firstVisit) {
+        int[] stack = (A == SearchAlgorithm.DFS ? storage.stack : null);
+        IndexedHeap heap = (A != SearchAlgorithm.DFS && A != SearchAlgorithm.BFS ? storage.heap : null);
+        int top = 0;
+        int next = 0;
+        
+        T initialState = initialNode.getState();
+        arena.add(initialState, -1, -1, 0, 0);
+        if (stack != null)
+            stack[top++] = 0;
+        else if (heap != null)
+            heap.push(0, cost(initialState, 0));
+        
+        while (true) {
+            int current;
+            if (stack != null) {
+                if (top == 0)
+                    break;
+                current = stack[--top];
+            } else if (heap != null) {
+                if (heap.isEmpty())
+                    break;
+                current = heap.pop();
+                if (nodes != null && current < nodes.length)
+                    nodes[current] = null;
+            } else {
+                if (next == arena.size())
+                    break;
+                current = next++;
+            }
+            
+            T currentState = arena.state(current);
+            if (evaluator.test(currentState))
+                return path(current);
+            else if (arena.depth(current) >= maxDepth)
+                continue;
+            
+            for (int i = 0; i < moveList.size(); i++) {
+                Move<T> successor = moveList.get(i);
+                T state = successor.objectiveFunction().apply(currentState);
+                if (state == null)
+                    continue;
+                
+                if (successor.incrementalHash() != null)
+                    state.fingerprint(successor.incrementalHash().childFingerprint(currentState, currentState.fingerprint(), state));
+                
+                if (!firstVisit.test(state))
+                    continue;
+                
+                int pathCost = arena.pathCost(current) + successor.cost();
+                int leaf = arena.add(state, current, i, pathCost, arena.depth(current) + 1);
+                if (stack != null) {
+                    if (top == stack.length)
+                        stack = storage.stack = Arrays.copyOf(stack, top << 1);
+                    stack[top++] = leaf;
+                } else if (heap != null) {
+                    heap.push(leaf, cost(state, pathCost));
+                }
+            }
+        }
+        
+        return Collections.emptyList();
+    }
+    
+    //The cost of a node is its path cost, plus the heuristic for A*, or only the heuristic for GS.
+    private int cost(T state, int pathCost) {
+        if (A == HeuristicAlgorithm.GS)
+            return heuristic.applyAsInt(state);
+        else if (A == HeuristicAlgorithm.A_STAR)
+            return pathCost + heuristic.applyAsInt(state);
+        else
+            return pathCost;
+    }
+    
+    //Creates the nodes of the path from the root to the given handle.
+    private List<Node<T>> path(int handle) {
+        int[] handles = new int[arena.depth(handle) + 1];
+        for (int i = handles.length - 1; i >= 0; i--, handle = arena.parent(handle))
+            handles[i] = handle;
+        
+        List<Node<T>> path = new ArrayList<>(handles.length);
+        Node<T> node = initialNode;
+        path.add(node);
+        for (int i = 1; i < handles.length; i++) {
+            T state = arena.state(handles[i]);
+            int pathCost = arena.pathCost(handles[i]);
+            node = new Node<>(state, node, moveList.get(arena.move(handles[i])), cost(state, pathCost), pathCost, i);
+            path.add(node);
+        }
+        
+        return Collections.unmodifiableList(path);
+    }
+    
+    private int compareHigherG(int a, int b) {
+        int order = Integer.compare(arena.pathCost(b), arena.pathCost(a));
+        return order != 0 ? order : Integer.compare(b, a);
+    }
+    
+    private int compareTies(int a, int b) {
+        int order = ties.compare(node(a), node(b));
+        return order != 0 ? order : Integer.compare(b, a);
+    }
+    
+    //Returns the node of the given handle without its parent, creating it on its first comparison.
+    @SuppressWarnings("unchecked")
+    private Node<T> node(int handle) {
+        if (nodes == null)
+            nodes = (Node<T>[]) new Node<?>[Math.max(1024, arena.size())];
+        if (handle >= nodes.length)
+            nodes = Arrays.copyOf(nodes, Math.max(handle + 1, nodes.length << 1));
+        
+        Node<T> node = nodes[handle];
+        if (node == null) {
+            int move = arena.move(handle);
+            node = nodes[handle] = new Node<>(arena.state(handle), null, (move < 0 ? null : moveList.get(move)), 
+                    (int) storage.heap.priority(handle), arena.pathCost(handle), arena.depth(handle));
+        }
+        return node;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import io.github.repomaestro.searching.algorithm.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * This class represents the bidirectional breadth first, uniform cost and MM (meet in the middle) searches, which
+ * search forward from the initial state and backward from the goal state at the same time, until the two searches meet.
+ * 
+ * <p>
+ * The backward search generates the predecessors of a state by the inverse moves: the inverse move {@code i} applied
+ * to a state returns the state which move {@code i} takes to it. If the moves are reversible (every move can be
+ * undone by a move of the same cost), the backward search uses the moves themselves, and the forward move of each
+ * backward step is found once the path is stitched.
+ * </p>
+ * 
+ * <p>
+ * The breadth first search expands a whole layer of the side with the smaller frontier at a time, and stops at the
+ * layer where the sides meet, with the shortest of the meetings of that layer. The uniform cost search expands the
+ * side whose least path cost is smaller, and stops once the least path costs of the two sides add up to the cost of
+ * the best meeting, which makes the path optimal for non-negative costs.
+ * </p>
+ * 
+ * <p>
+ * The MM search has a heuristic for each direction, the forward heuristic estimating the cost to the goal state and
+ * the backward heuristic estimating the cost from the initial state. The priority of a node is
+ * {@code max(f, 2g)} where {@code f = g + h} of its direction, so that neither search expands a node past the middle
+ * of an optimal path. It expands the side of the least priority (reopening a state if a cheaper path to it is found),
+ * and stops once the cost of the best meeting is at most the largest of the least priority, the least {@code f} of
+ * each side, and the sum of the least {@code g} of each side plus the least move cost. The path is optimal if the
+ * heuristics are admissible.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine}.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class BidirectionalSearch<T extends State> {
+    private final Node<T> initialNode;
+    private final Node<T> goalNode;
+    private final List<Move<T>> moveList;
+    private final List<Move<T>> inverseMoves;
+    private final Function<T, Object> identity;
+    private final ToIntFunction<T> forwardHeuristic;
+    private final ToIntFunction<T> backwardHeuristic;
+    
+    //The best nodes of the two sides by the identities of their states, where the parent of a backward node is its successor.
+    private final Map<Object, Node<T>> forward = new HashMap<>();
+    private final Map<Object, Node<T>> backward = new HashMap<>();
+    
+    //Whether the nodes are measured by their depths (breadth first) rather than their path costs (uniform cost).
+    private boolean byDepth;
+    
+    //The best meeting found so far, a forward and a backward node of the same state.
+    private Node<T> forwardMeeting;
+    private Node<T> backwardMeeting;
+    private int meetingCost = Integer.MAX_VALUE;
+    
+    /**
+     * Constructs the search.
+     * @param initialNode the initial node
+     * @param goalState the goal state
+     * @param moveList moves of the problem
+     * @param inverseMoves inverse moves of the moves in the same order, null if the moves are reversible
+     * @param identity identity of the states
+     * @param forwardHeuristic heuristic of the forward search (the cost to the goal state), used by MM only
+     * @param backwardHeuristic heuristic of the backward search (the cost from the initial state), used by MM only
+     */
+    BidirectionalSearch(Node<T> initialNode, T goalState, List<Move<T>> moveList, List<Move<T>> inverseMoves, Function<T, Object> identity,
+            ToIntFunction<T> forwardHeuristic, ToIntFunction<T> backwardHeuristic) {
+        this.initialNode = initialNode;
+        this.moveList = moveList;
+        this.inverseMoves = inverseMoves;
+        this.identity = identity;
+        this.forwardHeuristic = forwardHeuristic;
+        this.backwardHeuristic = backwardHeuristic;
+        this.goalNode = new Node<>(goalState, null, null, backwardHeuristic.applyAsInt(goalState), 0, 0);
+    }
+    
+    /**
+     * Searches for a path from the initial state to the goal state, of at most the given depth.
+     * @param A the search algorithm, the breadth first, the uniform cost or the MM search
+     * @param maxDepth maximum depth of the path
+     * @return path to the goal state, empty list if there is none within the maximum depth
+     */
+    List<Node<T>> pathTo(Algorithm A, int maxDepth) {
+        Object initialId = identity.apply(initialNode.getState());
+        if (initialId.equals(identity.apply(goalNode.getState())))
+            return List.of(initialNode);
+        
+        forward.put(initialId, initialNode);
+        backward.put(identity.apply(goalNode.getState()), goalNode);
+        
+        byDepth = (A == SearchAlgorithm.BFS);
+        if (byDepth)
+            breadthFirst(maxDepth);
+        else if (A == HeuristicAlgorithm.MM)
+            meetInTheMiddle(maxDepth);
+        else
+            uniformCost(maxDepth);
+        
+        return (forwardMeeting != null ? stitch() : Collections.emptyList());
+    }
+    
+    private void breadthFirst(int maxDepth) {
+        List<Node<T>> forwardLayer = new ArrayList<>(List.of(initialNode));
+        List<Node<T>> backwardLayer = new ArrayList<>(List.of(goalNode));
+        int forwardDepth = 0;
+        int backwardDepth = 0;
+        
+        while (!forwardLayer.isEmpty() && !backwardLayer.isEmpty() && forwardDepth + backwardDepth < maxDepth) {
+            boolean isForward = forwardLayer.size() <= backwardLayer.size();
+            List<Node<T>> next = new ArrayList<>();
+            for (Node<T> node : (isForward ? forwardLayer : backwardLayer))
+                expand(node, isForward, maxDepth, next::add);
+            
+            if (forwardMeeting != null)
+                return;
+            
+            if (isForward) {
+                forwardLayer = next;
+                forwardDepth++;
+            } else {
+                backwardLayer = next;
+                backwardDepth++;
+            }
+        }
+    }
+    
+    private void uniformCost(int maxDepth) {
+        PriorityQueue<Node<T>> forwardFringe = new PriorityQueue<>(List.of(initialNode));
+        PriorityQueue<Node<T>> backwardFringe = new PriorityQueue<>(List.of(goalNode));
+        
+        while (true) {
+            Node<T> forwardTop = peek(forwardFringe, forward);
+            Node<T> backwardTop = peek(backwardFringe, backward);
+            if (forwardTop == null || backwardTop == null || (long) forwardTop.getPathCost() + backwardTop.getPathCost() >= meetingCost)
+                return;
+            
+            boolean isForward = forwardTop.getPathCost() <= backwardTop.getPathCost();
+            PriorityQueue<Node<T>> fringe = (isForward ? forwardFringe : backwardFringe);
+            expand(fringe.remove(), isForward, maxDepth, fringe::add);
+        }
+    }
+    
+    private void meetInTheMiddle(int maxDepth) {
+        //The least move cost, the least difference between the costs of two paths.
+        int epsilon = Integer.MAX_VALUE;
+        for (Move<T> move : moveList)
+            epsilon = Math.min(epsilon, Math.max(move.cost(), 0));
+        
+        //The open nodes of each side ordered by priority, f and g, with the expanded nodes removed lazily.
+        Comparator<Node<T>> byPriority = Comparator.comparingInt(BidirectionalSearch::priority);
+        Comparator<Node<T>> byPathCost = Comparator.comparingInt(Node::getPathCost);
+        List<PriorityQueue<Node<T>>> forwardOpen = List.of(new PriorityQueue<>(byPriority), new PriorityQueue<>(), new PriorityQueue<>(byPathCost));
+        List<PriorityQueue<Node<T>>> backwardOpen = List.of(new PriorityQueue<>(byPriority), new PriorityQueue<>(), new PriorityQueue<>(byPathCost));
+        forwardOpen.forEach(open -> open.add(initialNode));
+        backwardOpen.forEach(open -> open.add(goalNode));
+        Set<Node<T>> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+        
+        while (true) {
+            @SuppressWarnings("unchecked")
+            Node<T>[] forwardTops = (Node<T>[]) new Node<?>[3];
+            @SuppressWarnings("unchecked")
+            Node<T>[] backwardTops = (Node<T>[]) new Node<?>[3];
+            for (int i = 0; i < 3; i++) {
+                forwardTops[i] = peek(forwardOpen.get(i), forward, expanded);
+                backwardTops[i] = peek(backwardOpen.get(i), backward, expanded);
+                if (forwardTops[i] == null || backwardTops[i] == null)
+                    return;
+            }
+            
+            int forwardPriority = priority(forwardTops[0]);
+            int backwardPriority = priority(backwardTops[0]);
+            long bound = Math.max(Math.min(forwardPriority, backwardPriority), Math.max(forwardTops[1].getCost(), backwardTops[1].getCost()));
+            bound = Math.max(bound, (long) forwardTops[2].getPathCost() + backwardTops[2].getPathCost() + epsilon);
+            if (meetingCost <= bound)
+                return;
+            
+            boolean isForward = forwardPriority <= backwardPriority;
+            Node<T> node = (isForward ? forwardTops[0] : backwardTops[0]);
+            expanded.add(node);
+            List<PriorityQueue<Node<T>>> open = (isForward ? forwardOpen : backwardOpen);
+            expand(node, isForward, maxDepth, leafNode -> open.forEach(queue -> queue.add(leafNode)));
+        }
+    }
+    
+    //The priority of a node in the MM search.
+    private static int priority(Node<?> node) {
+        return Math.max(node.getCost(), 2 * node.getPathCost());
+    }
+    
+    //Returns the least node of the fringe, after removing the nodes which are no longer the best nodes of their states.
+    private Node<T> peek(PriorityQueue<Node<T>> fringe, Map<Object, Node<T>> best) {
+        return peek(fringe, best, Collections.emptySet());
+    }
+    
+    //Returns the least node of the fringe, after removing the nodes which are no longer open.
+    private Node<T> peek(PriorityQueue<Node<T>> fringe, Map<Object, Node<T>> best, Set<Node<T>> expanded) {
+        while (!fringe.isEmpty() && (best.get(identity.apply(fringe.peek().getState())) != fringe.peek() || expanded.contains(fringe.peek())))
+            fringe.remove();
+        return fringe.peek();
+    }
+    
+    //Generates the successors (or the predecessors) of the node, and updates the best meeting.
+    private void expand(Node<T> node, boolean isForward, int maxDepth, Consumer<Node<T>> push) {
+        if (node.getDepth() >= maxDepth)
+            return;
+        
+        Map<Object, Node<T>> same = (isForward ? forward : backward);
+        Map<Object, Node<T>> other = (isForward ? backward : forward);
+        List<Move<T>> moves = (isForward || inverseMoves == null ? moveList : inverseMoves);
+        for (int i = 0; i < moves.size(); i++) {
+            T state = moves.get(i).objectiveFunction().apply(node.getState());
+            if (state == null)
+                continue;
+            
+            //A backward node holds the forward move from its state to the state of its parent, if it is known.
+            Move<T> move = (isForward || inverseMoves != null ? moveList.get(i) : null);
+            int pathCost = node.getPathCost() + (move != null ? move : moves.get(i)).cost();
+            
+            Object id = identity.apply(state);
+            Node<T> best = same.get(id);
+            if (best != null && (byDepth || best.getPathCost() <= pathCost))
+                continue;
+            
+            int cost = pathCost + (isForward ? forwardHeuristic : backwardHeuristic).applyAsInt(state);
+            Node<T> leafNode = new Node<>(state, node, move, cost, pathCost, node.getDepth() + 1);
+            same.put(id, leafNode);
+            push.accept(leafNode);
+            
+            Node<T> meeting = other.get(id);
+            if (meeting != null && leafNode.getDepth() + meeting.getDepth() <= maxDepth && (long) measure(leafNode) + measure(meeting) < meetingCost) {
+                meetingCost = measure(leafNode) + measure(meeting);
+                forwardMeeting = (isForward ? leafNode : meeting);
+                backwardMeeting = (isForward ? meeting : leafNode);
+            }
+        }
+    }
+    
+    private int measure(Node<T> node) {
+        return (byDepth ? node.getDepth() : node.getPathCost());
+    }
+    
+    //Constructs the path of the best meeting, continuing the forward half by the steps of the backward half.
+    private List<Node<T>> stitch() {
+        List<Node<T>> path = new ArrayList<>(TreeEngine.constructPath(forwardMeeting));
+        Node<T> node = forwardMeeting;
+        for (Node<T> step = backwardMeeting; step.getParent() != null; step = step.getParent()) {
+            T state = step.getParent().getState();
+            Move<T> move = (step.getMove() != null ? step.getMove() : forwardMove(step.getState(), state));
+            int pathCost = node.getPathCost() + move.cost();
+            node = new Node<>(state, node, move, pathCost + forwardHeuristic.applyAsInt(state), pathCost, node.getDepth() + 1);
+            path.add(node);
+        }
+        
+        return Collections.unmodifiableList(path);
+    }
+    
+    //Finds the cheapest forward move from one state to another, for the reversible moves.
+    private Move<T> forwardMove(T from, T to) {
+        Object id = identity.apply(to);
+        Move<T> cheapest = null;
+        for (Move<T> move : moveList) {
+            T state = move.objectiveFunction().apply(from);
+            if (state != null && (cheapest == null || move.cost() < cheapest.cost()) && identity.apply(state).equals(id))
+                cheapest = move;
+        }
+        
+        if (cheapest == null)
+            throw new IllegalStateException(String.format("No move leads from %s to %s, the moves are not reversible.", from, to));
+        return cheapest;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.util.List;
+
+/**
+ * This record represents the path found by a bounded-suboptimal search (see {@code TreeEngine.boundedPathTo}),
+ * together with a proven lower bound on the cost of an optimal path.
+ * 
+ * <p>
+ * The cost of the path is at most {@link #suboptimality()} times the cost of an optimal path, which is never more
+ * than the weight of the search, and often much less.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @param path immutable List of Nodes which is the path to the solution, empty List if no solution is found
+ * @param lowerBound lower bound on the cost of an optimal path, proven by the search, 0 if the search pruned nodes
+ * at its maximum depth and hence proved no bound
+ * @author repomaestro
+ */
+public record BoundedPath<T extends State>(List<Node<T>> path, int lowerBound) {
+    /**
+     * Returns the cost of the path, -1 if there is no path.
+     * @return the path cost of the last Node of the path
+     */
+    public int cost() {
+        return (path.isEmpty() ? -1 : path.get(path.size() - 1).getPathCost());
+    }
+    
+    /**
+     * Returns the proven suboptimality of the path, the ratio of its cost to the lower bound.
+     * @return ratio of the cost of the path to the cost of an optimal path at most, 1 for an optimal path,
+     * infinity if there is no path or no lower bound
+     */
+    public double suboptimality() {
+        if (path.isEmpty())
+            return Double.POSITIVE_INFINITY;
+        
+        return (lowerBound >= cost() ? 1 : cost() / (double) lowerBound);
+    }
+}
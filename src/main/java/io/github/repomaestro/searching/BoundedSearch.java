@@ -0,0 +1,159 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import io.github.repomaestro.searching.algorithm.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * This class represents the bounded-suboptimal searches, the weighted A* and the focal search, which find a path
+ * whose cost is at most the weight times the cost of an optimal path, for an admissible heuristic.
+ * 
+ * <p>
+ * The weighted A* search expands the node of the least {@code g + w * h}. The focal search expands, among the nodes
+ * whose {@code f = g + h} is at most {@code w} times the least {@code f} (the focal list), the node of the least
+ * heuristic, which is the node which seems closest to the goal.
+ * </p>
+ * 
+ * <p>
+ * Both keep the best node found for each state and reopen an expanded state if a cheaper path to it is found.
+ * Hence a node of an optimal path with its optimal path cost is always open, and the least {@code f} of the open
+ * nodes is a lower bound on the cost of an optimal path, which is returned with the path as the proof of its bound.
+ * The nodes at the maximum depth are not expanded, so that if any is met the open nodes no longer cover an optimal
+ * path and no lower bound is proven.
+ * The open nodes are ordered in several priority queues, from which the nodes that are no longer open are removed
+ * lazily.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine}.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class BoundedSearch<T extends State> {
+    private final Node<T> initialNode;
+    private final List<Move<T>> moveList;
+    private final Function<T, Object> identity;
+    private final Algorithm A;
+    private final double weight;
+    
+    //The best node of each state, and the nodes which are expanded.
+    private final Map<Object, Node<T>> best = new HashMap<>();
+    private final Set<Node<T>> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    //The open nodes by f, which gives the lower bound.
+    private final PriorityQueue<Node<T>> byCost = new PriorityQueue<>();
+    
+    //The open nodes by g + w * h for the weighted A*, or the focal list by h for the focal search.
+    private final PriorityQueue<Node<T>> preferred;
+    
+    //The open nodes of the focal search which are not in the focal list, by f.
+    private final PriorityQueue<Node<T>> pending = new PriorityQueue<>();
+    
+    //Whether a node at the maximum depth was left unexpanded.
+    private boolean pruned;
+    
+    BoundedSearch(Node<T> initialNode, List<Move<T>> moveList, Function<T, Object> identity, Algorithm A, double weight) {
+        this.initialNode = initialNode;
+        this.moveList = moveList;
+        this.identity = identity;
+        this.A = A;
+        this.weight = weight;
+        
+        ToIntFunction<Node<T>> heuristic = node -> node.getCost() - node.getPathCost();
+        if (A == HeuristicAlgorithm.WEIGHTED_A_STAR)
+            this.preferred = new PriorityQueue<>(Comparator.<Node<T>>comparingDouble(node -> node.getPathCost() + weight * heuristic.applyAsInt(node))
+                    .thenComparing(Comparator.comparingInt(Node<T>::getPathCost).reversed()));
+        else
+            this.preferred = new PriorityQueue<>(Comparator.comparingInt(heuristic).thenComparingInt(Node<T>::getCost));
+    }
+    
+    /**
+     * Searches for a path from the initial node to the goal, expanding at most to the given depth.
+     * @param evaluator the goal test
+     * @param maxDepth maximum depth to search for the solution
+     * @param heuristic the heuristic function
+     * @return path to the goal and the lower bound on the cost of an optimal path, 0 if nodes were pruned at the maximum depth
+     */
+    BoundedPath<T> pathTo(Predicate<T> evaluator, int maxDepth, ToIntFunction<T> heuristic) {
+        //The root is the initial node, whose cost is 0 rather than its f; it is expanded first, so its cost never bounds the others.
+        push(initialNode, identity.apply(initialNode.getState()));
+        
+        while (true) {
+            Node<T> currentNode = pop();
+            if (currentNode == null)
+                return new BoundedPath<>(Collections.emptyList(), 0);
+            
+            if (evaluator.test(currentNode.getState())) {
+                Node<T> least = peek(byCost);
+                int lowerBound = (pruned ? 0 : least == null ? currentNode.getPathCost() : Math.min(currentNode.getPathCost(), least.getCost()));
+                return new BoundedPath<>(TreeEngine.constructPath(currentNode), lowerBound);
+            } else if (currentNode.getDepth() >= maxDepth) {
+                pruned = true;
+                continue;
+            }
+            
+            for (Move<T> successor : moveList) {
+                T state = successor.objectiveFunction().apply(currentNode.getState());
+                if (state == null)
+                    continue;
+                
+                int pathCost = currentNode.getPathCost() + successor.cost();
+                Object id = identity.apply(state);
+                Node<T> previous = best.get(id);
+                if (previous != null && previous.getPathCost() <= pathCost)
+                    continue;
+                
+                push(new Node<>(state, currentNode, successor, pathCost + heuristic.applyAsInt(state), pathCost, currentNode.getDepth() + 1), id);
+            }
+        }
+    }
+    
+    private void push(Node<T> node, Object id) {
+        best.put(id, node);
+        byCost.add(node);
+        if (A == HeuristicAlgorithm.WEIGHTED_A_STAR) {
+            preferred.add(node);
+        } else {
+            Node<T> least = peek(byCost);
+            if (node.getCost() <= weight * least.getCost())
+                preferred.add(node);
+            else
+                pending.add(node);
+        }
+    }
+    
+    //Pops the next node to expand, null if there are no open nodes.
+    private Node<T> pop() {
+        Node<T> node;
+        if (A == HeuristicAlgorithm.WEIGHTED_A_STAR) {
+            node = peek(preferred);
+        } else {
+            Node<T> least = peek(byCost);
+            if (least == null)
+                return null;
+            
+            //The focal list holds the open nodes whose f is at most w times the least f, which changes as nodes are expanded.
+            double bound = weight * least.getCost();
+            for (Node<T> next; (next = peek(pending)) != null && next.getCost() <= bound;)
+                preferred.add(pending.remove());
+            while ((node = peek(preferred)) != null && node.getCost() > bound)
+                pending.add(preferred.remove());
+        }
+        
+        if (node != null) {
+            preferred.remove();
+            expanded.add(node);
+        }
+        return node;
+    }
+    
+    //Returns the least node of the queue, after removing the nodes which are no longer open.
+    private Node<T> peek(PriorityQueue<Node<T>> queue) {
+        while (!queue.isEmpty() && (expanded.contains(queue.peek()) || best.get(identity.apply(queue.peek().getState())) != queue.peek()))
+            queue.remove();
+        return queue.peek();
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * This class represents an external-memory breadth first search with delayed duplicate detection.
+ * 
+ * <p>
+ * Rather than probing a closed set for every generated state, the search expands a whole layer (the states at
+ * the same depth) at once. Generated states are collected in memory up to the run size, sorted by their packed
+ * forms and written to the disk as sorted runs. Once the layer is expanded, the runs are merged, duplicates within
+ * the runs are dropped, and the states of the previous layers are subtracted by merging with a sorted file of all
+ * the visited states. Hence the duplicate detection is done by sequential I/O only, and the search is limited by
+ * the disk rather than the memory.
+ * </p>
+ * 
+ * <p>
+ * Each state is written to the disk as a record of its packed form, the packed form of its parent, and the index of
+ * the move that generated it. The path to the goal is constructed by looking the parents up in the layer files.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine}.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class ExternalSearch<T extends State> {
+    private static final int MAX_RUN_LENGTH = Integer.MAX_VALUE - 8;
+    
+    private final Node<T> initialNode;
+    private final List<Move<T>> moveList;
+    private final StateCodec<T> codec;
+    private final Path directory;
+    private final int runSize;
+    
+    //Number of longs of a packed form and a record (packed form, packed form of the parent, move index).
+    private final int width;
+    private final int recordWidth;
+    
+    ExternalSearch(Node<T> initialNode, List<Move<T>> moveList, StateCodec<T> codec, Path directory, int runSize) {
+        this.initialNode = initialNode;
+        this.moveList = moveList;
+        this.codec = codec;
+        this.directory = directory;
+        this.runSize = runSize;
+        this.width = codec.width();
+        this.recordWidth = 2 * width + 1;
+        
+        //A run is sorted in one array, whose length must stay below the maximum array length.
+        if ((long) runSize * recordWidth > MAX_RUN_LENGTH)
+            throw new IllegalArgumentException(String.format("Run size %d is too large for records of %d longs, at most %d records fit in a run.", 
+                    runSize, recordWidth, MAX_RUN_LENGTH / recordWidth));
+    }
+    
+    /**
+     * Searches for a path from the initial node to the goal, expanding at most to the given depth.
+     * @param evaluator the goal test
+     * @param maxDepth maximum depth to search for the solution
+     * @return path to the goal, empty list if there is none within the maximum depth
+     */
+    List<Node<T>> pathTo(Predicate<T> evaluator, int maxDepth) {
+        if (evaluator.test(initialNode.getState()))
+            return List.of(initialNode);
+        
+        Path work = null;
+        try {
+            work = Files.createTempDirectory(directory, "bfs");
+            
+            long[] root = new long[recordWidth];
+            codec.encode(initialNode.getState(), root, 0);
+            codec.encode(initialNode.getState(), root, width);
+            root[2 * width] = -1;
+            
+            List<Path> layers = new ArrayList<>();
+            List<Long> layerSizes = new ArrayList<>();
+            layers.add(write(work.resolve("layer0"), List.of(root)));
+            layerSizes.add(1L);
+            
+            Path visited = write(work.resolve("visited0"), List.of(Arrays.copyOf(root, width)));
+            long visitedSize = 1;
+            
+            for (int depth = 0; depth < maxDepth && layerSizes.get(depth) > 0; depth++) {
+                List<Path> runs = new ArrayList<>();
+                List<Long> runSizes = new ArrayList<>();
+                expand(layers.get(depth), layerSizes.get(depth), work, runs, runSizes);
+                
+                //Merge the runs, subtract the visited states, and write the new layer and visited files.
+                Path layer = work.resolve("layer" + (depth + 1));
+                Path nextVisited = work.resolve("visited" + (depth + 1));
+                long[] goal = null;
+                long layerSize = 0;
+                long nextVisitedSize = 0;
+                
+                try (RecordMerger merger = new RecordMerger(runs, runSizes);
+                        RecordReader old = new RecordReader(visited, visitedSize, width);
+                        DataOutputStream layerOut = output(layer);
+                        DataOutputStream visitedOut = output(nextVisited)) {
+                    boolean hasOld = old.next();
+                    long[] record;
+                    while ((record = merger.next()) != null) {
+                        //Copy the visited states which come before the record.
+                        int cmp = 1;
+                        while (hasOld && (cmp = compare(old.current, 0, record, 0)) < 0) {
+                            writeLongs(visitedOut, old.current, width);
+                            nextVisitedSize++;
+                            hasOld = old.next();
+                        }
+                        if (hasOld && cmp == 0)
+                            continue;
+                        
+                        writeLongs(layerOut, record, recordWidth);
+                        writeLongs(visitedOut, record, width);
+                        layerSize++;
+                        nextVisitedSize++;
+                        
+                        if (goal == null && evaluator.test(codec.decode(record, 0))) {
+                            goal = record.clone();
+                            break;
+                        }
+                    }
+                    
+                    if (goal == null) {
+                        for (; hasOld; hasOld = old.next()) {
+                            writeLongs(visitedOut, old.current, width);
+                            nextVisitedSize++;
+                        }
+                    }
+                }
+                
+                for (Path run : runs)
+                    Files.delete(run);
+                Files.delete(visited);
+                
+                if (goal != null)
+                    return constructPath(goal, layers, layerSizes);
+                
+                layers.add(layer);
+                layerSizes.add(layerSize);
+                visited = nextVisited;
+                visitedSize = nextVisitedSize;
+            }
+            
+            return Collections.emptyList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            delete(work);
+        }
+    }
+    
+    /*
+    Expands every state of the layer, writing the records of the generated states as sorted runs
+    without duplicates.
+    */
+    private void expand(Path layer, long layerSize, Path work, List<Path> runs, List<Long> runSizes) throws IOException {
+        long[] buffer = new long[runSize * recordWidth];
+        int count = 0;
+        
+        try (RecordReader reader = new RecordReader(layer, layerSize, recordWidth)) {
+            while (reader.next()) {
+                T state = codec.decode(reader.current, 0);
+                for (int m = 0; m < moveList.size(); m++) {
+                    T next = moveList.get(m).objectiveFunction().apply(state);
+                    if (next == null)
+                        continue;
+                    
+                    int offset = count * recordWidth;
+                    codec.encode(next, buffer, offset);
+                    System.arraycopy(reader.current, 0, buffer, offset + width, width);
+                    buffer[offset + 2 * width] = m;
+                    
+                    if (++count == runSize) {
+                        writeRun(buffer, count, work, runs, runSizes);
+                        count = 0;
+                    }
+                }
+            }
+        }
+        
+        if (count > 0)
+            writeRun(buffer, count, work, runs, runSizes);
+    }
+    
+    private void writeRun(long[] buffer, int count, Path work, List<Path> runs, List<Long> runSizes) throws IOException {
+        int[] order = sort(buffer, count);
+        Path run = work.resolve("run" + runs.size());
+        long written = 0;
+        
+        try (DataOutputStream out = output(run)) {
+            int previous = -1;
+            for (int i : order) {
+                if (previous >= 0 && compare(buffer, i * recordWidth, buffer, previous * recordWidth) == 0)
+                    continue;
+                
+                for (int j = 0; j < recordWidth; j++)
+                    out.writeLong(buffer[i * recordWidth + j]);
+                previous = i;
+                written++;
+            }
+        }
+        
+        runs.add(run);
+        runSizes.add(written);
+    }
+    
+    //Stable merge sort of the record indices by the packed forms of the records.
+    private int[] sort(long[] buffer, int count) {
+        int[] order = new int[count];
+        int[] temp = new int[count];
+        for (int i = 0; i < count; i++)
+            order[i] = i;
+        
+        for (int size = 1; size < count; size <<= 1) {
+            for (int low = 0; low < count - size; low += size << 1) {
+                int mid = low + size;
+                int high = Math.min(low + (size << 1), count);
+                int i = low, j = mid, k = low;
+                while (i < mid && j < high)
+                    temp[k++] = compare(buffer, order[j] * recordWidth, buffer, order[i] * recordWidth) < 0 ? order[j++] : order[i++];
+                while (i < mid)
+                    temp[k++] = order[i++];
+                while (j < high)
+                    temp[k++] = order[j++];
+                System.arraycopy(temp, low, order, low, high - low);
+            }
+        }
+        return order;
+    }
+    
+    /*
+    Constructs the path to the goal record by looking up the parent of each record in the previous layer,
+    which is sorted, hence binary searched.
+    */
+    private List<Node<T>> constructPath(long[] goal, List<Path> layers, List<Long> layerSizes) throws IOException {
+        LinkedList<long[]> records = new LinkedList<>();
+        records.addFirst(goal);
+        
+        for (int depth = layers.size() - 1; depth > 0; depth--) {
+            long[] parent = Arrays.copyOfRange(records.getFirst(), width, 2 * width);
+            records.addFirst(find(layers.get(depth), layerSizes.get(depth), parent));
+        }
+        
+        List<Node<T>> path = new ArrayList<>();
+        Node<T> node = initialNode;
+        path.add(node);
+        for (long[] record : records) {
+            Move<T> move = moveList.get((int) record[2 * width]);
+            int pathCost = node.getPathCost() + move.cost();
+            node = new Node<>(codec.decode(record, 0), node, move, pathCost, pathCost, node.getDepth() + 1);
+            path.add(node);
+        }
+        return Collections.unmodifiableList(path);
+    }
+    
+    private long[] find(Path layer, long layerSize, long[] code) throws IOException {
+        long[] record = new long[recordWidth];
+        try (RandomAccessFile file = new RandomAccessFile(layer.toFile(), "r")) {
+            long low = 0, high = layerSize - 1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                file.seek(mid * recordWidth * Long.BYTES);
+                for (int i = 0; i < recordWidth; i++)
+                    record[i] = file.readLong();
+                
+                int cmp = compare(record, 0, code, 0);
+                if (cmp == 0)
+                    return record;
+                else if (cmp < 0)
+                    low = mid + 1;
+                else
+                    high = mid - 1;
+            }
+        }
+        throw new IllegalStateException("Parent of a state is not found in its layer.");
+    }
+    
+    private Path write(Path file, List<long[]> records) throws IOException {
+        try (DataOutputStream out = output(file)) {
+            for (long[] record : records)
+                writeLongs(out, record, record.length);
+        }
+        return file;
+    }
+    
+    //Compares the packed forms starting at the given offsets.
+    private int compare(long[] a, int aOffset, long[] b, int bOffset) {
+        for (int i = 0; i < width; i++) {
+            int cmp = Long.compare(a[aOffset + i], b[bOffset + i]);
+            if (cmp != 0)
+                return cmp;
+        }
+        return 0;
+    }
+    
+    private static void writeLongs(DataOutputStream out, long[] values, int count) throws IOException {
+        for (int i = 0; i < count; i++)
+            out.writeLong(values[i]);
+    }
+    
+    private static DataOutputStream output(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    }
+    
+    private static void delete(Path work) {
+        if (work == null)
+            return;
+        
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(work)) {
+            for (Path file : files)
+                Files.deleteIfExists(file);
+            Files.deleteIfExists(work);
+        } catch (IOException e) {
+            work.toFile().deleteOnExit();
+        }
+    }
+    
+    /**
+     * Sequential reader of a file of fixed-width records.
+     */
+    private static final class RecordReader implements Closeable {
+        private final DataInputStream in;
+        private long remaining;
+        private final long[] current;
+        
+        RecordReader(Path file, long size, int recordWidth) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+            this.remaining = size;
+            this.current = new long[recordWidth];
+        }
+        
+        boolean next() throws IOException {
+            if (remaining == 0)
+                return false;
+            
+            for (int i = 0; i < current.length; i++)
+                current[i] = in.readLong();
+            remaining--;
+            return true;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+    
+    /**
+     * K-way merger of sorted runs, which returns the records in order, dropping the duplicates.
+     */
+    private final class RecordMerger implements Closeable {
+        private final List<RecordReader> readers = new ArrayList<>();
+        private final PriorityQueue<RecordReader> queue = new PriorityQueue<>((a, b) -> compare(a.current, 0, b.current, 0));
+        private final long[] last = new long[recordWidth];
+        private boolean hasLast;
+        
+        RecordMerger(List<Path> runs, List<Long> runSizes) throws IOException {
+            for (int i = 0; i < runs.size(); i++) {
+                RecordReader reader = new RecordReader(runs.get(i), runSizes.get(i), recordWidth);
+                readers.add(reader);
+                if (reader.next())
+                    queue.add(reader);
+            }
+        }
+        
+        long[] next() throws IOException {
+            while (!queue.isEmpty()) {
+                RecordReader reader = queue.poll();
+                boolean duplicate = hasLast && compare(reader.current, 0, last, 0) == 0;
+                if (!duplicate) {
+                    System.arraycopy(reader.current, 0, last, 0, recordWidth);
+                    hasLast = true;
+                }
+                
+                if (reader.next())
+                    queue.add(reader);
+                
+                if (!duplicate)
+                    return last;
+            }
+            return null;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            for (RecordReader reader : readers)
+                reader.close();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+/**
+ * An optional hook of a {@link Move} which derives the fingerprint of the state that results from
+ * the move, from the fingerprint of the state the move is applied to.
+ * 
+ * <p>
+ * A move typically changes only a few fields of a state, thus the fingerprint of the resulting state
+ * can be computed in constant time from the fingerprint of the parent state and the changed fields,
+ * rather than from scratch (see {@link Zobrist}).
+ * </p>
+ * 
+ * <p>
+ * <i>
+ * <b>Important</b>: the returned fingerprint MUST be equal to the one {@code State.computeFingerprint}
+ * would compute for the child state, since the fingerprint of the initial state is computed by it.
+ * </i>
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+@FunctionalInterface
+public interface IncrementalHash<T extends State> {
+    /**
+     * Returns the fingerprint of the child state.
+     * @param parent the state the move is applied to
+     * @param parentFingerprint fingerprint of the parent state
+     * @param child the state that resulted from the move
+     * @return fingerprint of the child state
+     */
+    long childFingerprint(T parent, long parentFingerprint, T child);
+}
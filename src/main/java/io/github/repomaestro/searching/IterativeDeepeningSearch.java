@@ -0,0 +1,146 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * This class represents the iterative deepening A* (IDA*) search.
+ * 
+ * <p>
+ * Each iteration is a depth first search which does not expand the nodes whose cost {@code f = g + h} exceeds the
+ * threshold of the iteration. The threshold starts as the heuristic of the initial state and is raised to the least
+ * cost which exceeded it in the previous iteration, so that the path found is optimal for an admissible heuristic.
+ * </p>
+ * 
+ * <p>
+ * The depth first search keeps only the current path, on an explicit stack of parallel arrays (the states, their
+ * path costs and the index of the next move to try) which is reused by all the iterations. There is no closed set,
+ * thus the memory is linear in the depth. The states on the current path are not generated again, which prevents
+ * cycles, but the transpositions (the same state on different paths) are searched again.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine}.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class IterativeDeepeningSearch<T extends State> {
+    private final Node<T> initialNode;
+    private final List<Move<T>> moveList;
+    
+    //The current path: the states, their path costs, the index of the move to each state and of the next move to try.
+    private Object[] states = new Object[64];
+    private int[] pathCosts = new int[64];
+    private int[] moves = new int[64];
+    private int[] nextMoves = new int[64];
+    
+    IterativeDeepeningSearch(Node<T> initialNode, List<Move<T>> moveList) {
+        this.initialNode = initialNode;
+        this.moveList = moveList;
+    }
+    
+    /**
+     * Searches for a path from the initial node to the goal, expanding at most to the given depth.
+     * @param evaluator the goal test
+     * @param maxDepth maximum depth to search for the solution
+     * @param heuristic the heuristic function
+     * @return path to the goal, empty list if there is none within the maximum depth
+     */
+    List<Node<T>> pathTo(Predicate<T> evaluator, int maxDepth, ToIntFunction<T> heuristic) {
+        T initialState = initialNode.getState();
+        if (evaluator.test(initialState))
+            return List.of(initialNode);
+        
+        int threshold = heuristic.applyAsInt(initialState);
+        while (true) {
+            //The least cost which exceeds the threshold, hence the threshold of the next iteration.
+            int next = Integer.MAX_VALUE;
+            
+            int depth = 0;
+            states[0] = initialState;
+            pathCosts[0] = 0;
+            nextMoves[0] = 0;
+            while (depth >= 0) {
+                if (nextMoves[depth] == moveList.size()) {
+                    states[depth--] = null;
+                    continue;
+                }
+                
+                int i = nextMoves[depth]++;
+                Move<T> successor = moveList.get(i);
+                @SuppressWarnings("unchecked")
+                T parentState = (T) states[depth];
+                T state = successor.objectiveFunction().apply(parentState);
+                if (state == null)
+                    continue;
+                
+                int pathCost = pathCosts[depth] + successor.cost();
+                int cost = pathCost + heuristic.applyAsInt(state);
+                if (cost > threshold) {
+                    next = Math.min(next, cost);
+                    continue;
+                }
+                
+                if (depth + 1 > maxDepth)
+                    continue;
+                
+                if (successor.incrementalHash() != null)
+                    state.fingerprint(successor.incrementalHash().childFingerprint(parentState, parentState.fingerprint(), state));
+                
+                if (onPath(state, depth))
+                    continue;
+                
+                if (++depth == states.length)
+                    grow();
+                
+                states[depth] = state;
+                pathCosts[depth] = pathCost;
+                moves[depth] = i;
+                nextMoves[depth] = 0;
+                
+                if (evaluator.test(state))
+                    return path(depth, heuristic);
+            }
+            
+            if (next == Integer.MAX_VALUE)
+                return Collections.emptyList();
+            
+            threshold = next;
+        }
+    }
+    
+    //Checks whether the state is one of the states on the current path up to the given depth.
+    private boolean onPath(T state, int depth) {
+        for (int d = depth; d >= 0; d--)
+            if (state.equals(states[d]))
+                return true;
+        return false;
+    }
+    
+    //Creates the nodes of the current path up to the given depth, and clears the path.
+    private List<Node<T>> path(int depth, ToIntFunction<T> heuristic) {
+        List<Node<T>> path = new ArrayList<>(depth + 1);
+        Node<T> node = initialNode;
+        path.add(node);
+        for (int d = 1; d <= depth; d++) {
+            @SuppressWarnings("unchecked")
+            T state = (T) states[d];
+            node = new Node<>(state, node, moveList.get(moves[d]), pathCosts[d] + heuristic.applyAsInt(state), pathCosts[d], d);
+            path.add(node);
+        }
+        
+        Arrays.fill(states, 0, depth + 1, null);
+        return Collections.unmodifiableList(path);
+    }
+    
+    private void grow() {
+        int length = states.length << 1;
+        states = Arrays.copyOf(states, length);
+        pathCosts = Arrays.copyOf(pathCosts, length);
+        moves = Arrays.copyOf(moves, length);
+        nextMoves = Arrays.copyOf(nextMoves, length);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * This class computes the 64-bit fingerprints of the keys of the states (see {@link State#key()}) and of the
+ * fields of the states annotated with {@link SearchState}.
+ * 
+ * <p>
+ * A fingerprint is derived from the content of a value rather than its 32-bit hash code, so that it carries
+ * all its 64 bits: the boxed primitives, strings, enums, states, packed forms, lists, sets, maps and records
+ * are fingerprinted by their contents, recursively. Equal values have equal fingerprints, as long as the values
+ * follow the {@code equals} contracts of their types (in particular, a record must keep the {@code equals} which
+ * compares its components). The values of any other type are fingerprinted by their hash codes.
+ * </p>
+ * 
+ * This class is package-private and used by {@link State} and {@link StateIdentity}.
+ * @author repomaestro
+ */
+final class KeyFingerprint {
+    //Accessors of the components of the record classes, null if they are not accessible.
+    private static final ClassValue<Method[]> COMPONENTS = new ClassValue<>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            Method[] accessors = new Method[components.length];
+            try {
+                for (int i = 0; i < components.length; i++) {
+                    accessors[i] = components[i].getAccessor();
+                    accessors[i].setAccessible(true);
+                }
+            } catch (RuntimeException e) {
+                return null;
+            }
+            return accessors;
+        }
+    };
+    
+    private KeyFingerprint() {
+    }
+    
+    /**
+     * Computes the fingerprint of a value.
+     * @param value the value, can be null
+     * @return 64-bit fingerprint of the value
+     */
+    static long of(Object value) {
+        return StateIdentity.finish(hash(value));
+    }
+    
+    //Unfinished fingerprint of a value, the hash of its type combined with the hashes of its contents.
+    private static long hash(Object value) {
+        if (value == null)
+            return StateIdentity.SEED;
+        else if (value instanceof State)
+            return ((State) value).fingerprint();
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            return StateIdentity.combine(1, ((Number) value).longValue());
+        else if (value instanceof Character)
+            return StateIdentity.combine(2, ((Character) value).charValue());
+        else if (value instanceof Boolean)
+            return StateIdentity.combine(3, (Boolean) value ? 1 : 0);
+        else if (value instanceof Double)
+            return StateIdentity.combine(4, Double.doubleToLongBits((Double) value));
+        else if (value instanceof Float)
+            return StateIdentity.combine(5, Float.floatToIntBits((Float) value));
+        else if (value instanceof String)
+            return hash((String) value);
+        else if (value instanceof Enum)
+            return StateIdentity.combine(hash(((Enum<?>) value).getDeclaringClass().getName()), ((Enum<?>) value).ordinal());
+        else if (value instanceof PackedState) {
+            long hash = 6;
+            for (long l : ((PackedState) value).code())
+                hash = StateIdentity.combine(hash, l);
+            return hash;
+        } else if (value instanceof List) {
+            long hash = 7;
+            for (Object element : (List<?>) value)
+                hash = StateIdentity.combine(hash, hash(element));
+            return hash;
+        } else if (value instanceof Set) {
+            //Sum of the finished fingerprints of the elements, which does not depend on the order of iteration.
+            long sum = 0;
+            for (Object element : (Set<?>) value)
+                sum += of(element);
+            return StateIdentity.combine(StateIdentity.combine(8, ((Set<?>) value).size()), sum);
+        } else if (value instanceof Map) {
+            long sum = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                sum += StateIdentity.finish(StateIdentity.combine(hash(entry.getKey()), hash(entry.getValue())));
+            return StateIdentity.combine(StateIdentity.combine(9, ((Map<?, ?>) value).size()), sum);
+        } else if (value instanceof Record) {
+            Method[] accessors = COMPONENTS.get(value.getClass());
+            if (accessors != null) {
+                long hash = hash(value.getClass().getName());
+                try {
+                    for (Method accessor : accessors)
+                        hash = StateIdentity.combine(hash, hash(accessor.invoke(value)));
+                    return hash;
+                } catch (ReflectiveOperationException e) {
+                    //The components cannot be read, the record is fingerprinted by its hash code.
+                }
+            }
+        }
+        
+        return StateIdentity.combine(10, value.hashCode());
+    }
+    
+    //Hashes four characters per long.
+    private static long hash(String value) {
+        long hash = StateIdentity.combine(11, value.length());
+        int i = 0;
+        for (; i + 4 <= value.length(); i += 4)
+            hash = StateIdentity.combine(hash, value.charAt(i) | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32 | (long) value.charAt(i + 3) << 48);
+        
+        long rest = 0;
+        for (int shift = 0; i < value.length(); i++, shift += 16)
+            rest |= (long) value.charAt(i) << shift;
+        return StateIdentity.combine(hash, rest);
+    }
+}
@@ -15,11 +15,45 @@ import java.util.function.*;
  * <ul>
  * <li>String, move name,</li> 
  * <li>UnaryOperator, the objective function,</li>
- * <li>int, cost of the move.</li>
+ * <li>int, cost of the move,</li>
+ * <li>IncrementalHash, optional hook that derives the fingerprint of the resulting state
+ * from the fingerprint of the state the move is applied to (may be null).</li>
+ * <li>Mutation, optional in-place form of the objective function which can be undone (may be null).</li>
  * </ul>
  * 
  * 
  * @param <T> type of state, must be a sub-type of {@link State}
  * @author repomaestro
  */
-public record Move<T extends State>(String moveName, UnaryOperator<T> objectiveFunction, int cost) {}
+public record Move<T extends State>(String moveName, UnaryOperator<T> objectiveFunction, int cost, IncrementalHash<T> incrementalHash, Mutation<T> mutation) {
+    /**
+     * Constructs a Move without an incremental hash hook, fingerprints of the resulting
+     * states are then computed from scratch.
+     * @param moveName name of the move
+     * @param objectiveFunction the objective function
+     * @param cost cost of the move
+     */
+    public Move(String moveName, UnaryOperator<T> objectiveFunction, int cost) {
+        this(moveName, objectiveFunction, cost, null, null);
+    }
+    
+    /**
+     * Constructs a Move without a mutation.
+     * @param moveName name of the move
+     * @param objectiveFunction the objective function
+     * @param cost cost of the move
+     * @param incrementalHash hook that derives the fingerprints of the resulting states, null to compute them from scratch
+     */
+    public Move(String moveName, UnaryOperator<T> objectiveFunction, int cost, IncrementalHash<T> incrementalHash) {
+        this(moveName, objectiveFunction, cost, incrementalHash, null);
+    }
+    
+    /**
+     * Returns a copy of this Move with the given mutation, the in-place form of its objective function.
+     * @param mutation the mutation, which must change a state the same way the objective function creates its result
+     * @return a Move which is the same as this one, but has the given mutation
+     */
+    public Move<T> withMutation(Mutation<T> mutation) {
+        return new Move<>(moveName, objectiveFunction, cost, incrementalHash, mutation);
+    }
+}
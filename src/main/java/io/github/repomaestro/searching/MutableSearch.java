@@ -0,0 +1,230 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * This class represents the depth first searches which change a single state by the {@link Mutation}s of the moves,
+ * instead of creating a state per node.
+ * 
+ * <p>
+ * The current path is kept as the index of the move to each depth, the index of the next move to try and the path
+ * costs, in parallel arrays. Going deeper applies a mutation to the state, and backtracking undoes it, so the state
+ * is always the state at the end of the current path. Once the goal is found, the state is restored to the initial
+ * state and the {@link Node}s of the path are created by replaying the objective functions of its moves.
+ * </p>
+ * 
+ * <p>
+ * The depth first search detects the duplicates by a closed set of the identities of the states, and tries the moves
+ * of a node in the order of the move list, thus it may find a different path than the depth first search on immutable
+ * states. The IDA* search (see {@link IterativeDeepeningSearch}) keeps no closed set, but the identities of the states
+ * on the current path, and does not go to a state on the current path again.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine}.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class MutableSearch<T extends State> {
+    private final Node<T> initialNode;
+    private final List<Move<T>> moveList;
+    private final StateCodec<T> codec;
+    private final StateCodec<T> fixedCodec;
+    
+    //The current path: the index of the move to each depth, of the next move to try, and the path costs.
+    private int[] moves = new int[64];
+    private int[] nextMoves = new int[64];
+    private int[] pathCosts = new int[64];
+    
+    //Identities of the states on the current path, in a long array if there is a fixed-width codec.
+    private final int width;
+    private long[] packed;
+    private Object[] keys;
+    
+    MutableSearch(Node<T> initialNode, List<Move<T>> moveList, StateCodec<T> codec) {
+        this.initialNode = initialNode;
+        this.moveList = moveList;
+        this.codec = codec;
+        this.fixedCodec = (codec != null && codec.width() != StateCodec.VARIABLE ? codec : null);
+        this.width = (fixedCodec != null ? fixedCodec.width() : 0);
+        
+        T initialState = initialNode.getState();
+        if (codec == null && initialState.key() == initialState)
+            throw new IllegalStateException("States which are changed by mutations must override State.key, unless there is a codec of the states.");
+    }
+    
+    /**
+     * Checks whether the searches of this class can be used, that is if every move has a mutation.
+     * @param <T> type of state
+     * @param moveList moves of the problem
+     * @return true if every move has a mutation
+     */
+    static <T extends State> boolean supports(List<Move<T>> moveList) {
+        for (Move<T> move : moveList)
+            if (move.mutation() == null)
+                return false;
+        return true;
+    }
+    
+    /**
+     * Searches depth first for a path from the initial node to the goal, expanding at most to the given depth.
+     * @param evaluator the goal test
+     * @param maxDepth maximum depth to search for the solution
+     * @param firstVisit the closed set of the search, which returns true for a state that is not generated before
+     * @return path to the goal, empty list if there is none within the maximum depth
+     */
+    List<Node<T>> pathTo(Predicate<T> evaluator, int maxDepth, Predicate<? super T> firstVisit) {
+        if (evaluator.test(initialNode.getState()))
+            return List.of(initialNode);
+        
+        int depth = search(evaluator, maxDepth, state -> 0, Integer.MAX_VALUE, firstVisit);
+        return (depth > 0 ? path(depth, state -> 0) : Collections.emptyList());
+    }
+    
+    /**
+     * Searches by IDA* for a path from the initial node to the goal, expanding at most to the given depth.
+     * @param evaluator the goal test
+     * @param maxDepth maximum depth to search for the solution
+     * @param heuristic the heuristic function
+     * @return path to the goal, empty list if there is none within the maximum depth
+     */
+    List<Node<T>> deepeningPathTo(Predicate<T> evaluator, int maxDepth, ToIntFunction<T> heuristic) {
+        T initialState = initialNode.getState();
+        if (evaluator.test(initialState))
+            return List.of(initialNode);
+        
+        int threshold = heuristic.applyAsInt(initialState);
+        while (true) {
+            int depth = search(evaluator, maxDepth, heuristic, threshold, null);
+            if (depth > 0)
+                return path(depth, heuristic);
+            else if (-depth == Integer.MAX_VALUE)
+                return Collections.emptyList();
+            
+            threshold = -depth;
+        }
+    }
+    
+    /**
+     * Searches depth first, not going to the states whose cost exceeds the threshold. The state is restored to the
+     * initial state when this method returns, while the moves of the path to the goal are left in the arrays.
+     * @return depth of the goal if it is found, the negated least cost which exceeds the threshold otherwise
+     */
+    private int search(Predicate<T> evaluator, int maxDepth, ToIntFunction<T> heuristic, int threshold, Predicate<? super T> firstVisit) {
+        T state = initialNode.getState();
+        int next = Integer.MAX_VALUE;
+        
+        int depth = 0;
+        int pending = -1; //move applied to the state but not yet recorded at a depth
+        pathCosts[0] = 0;
+        nextMoves[0] = (maxDepth > 0 ? 0 : moveList.size());
+        if (firstVisit == null)
+            remember(state, 0);
+        
+        try {
+            while (depth >= 0) {
+                if (nextMoves[depth] == moveList.size()) {
+                    if (depth > 0)
+                        undo(state, moves[depth--]);
+                    else
+                        depth--;
+                    continue;
+                }
+                
+                int i = nextMoves[depth]++;
+                Move<T> successor = moveList.get(i);
+                if (!successor.mutation().apply(state))
+                    continue;
+                pending = i;
+                state.forgetFingerprint();
+                
+                int pathCost = pathCosts[depth] + successor.cost();
+                int cost = pathCost + heuristic.applyAsInt(state);
+                if (cost > threshold) {
+                    next = Math.min(next, cost);
+                    pending = -1;
+                    undo(state, i);
+                    continue;
+                }
+                
+                if (firstVisit != null ? !firstVisit.test(state) : !remember(state, depth + 1)) {
+                    pending = -1;
+                    undo(state, i);
+                    continue;
+                }
+                
+                if (depth + 1 == moves.length)
+                    grow();
+                
+                moves[++depth] = i;
+                pending = -1;
+                pathCosts[depth] = pathCost;
+                nextMoves[depth] = (depth < maxDepth ? 0 : moveList.size());
+                
+                if (evaluator.test(state))
+                    return depth;
+            }
+            
+            return -next;
+        } finally {
+            if (pending >= 0)
+                undo(state, pending);
+            for (int d = depth; d > 0; d--)
+                undo(state, moves[d]);
+        }
+    }
+    
+    private void undo(T state, int move) {
+        moveList.get(move).mutation().undo(state);
+        state.forgetFingerprint();
+    }
+    
+    //Stores the identity of the state at the given depth, unless it is the identity of a state before that depth.
+    private boolean remember(T state, int depth) {
+        if (fixedCodec != null) {
+            if (packed == null || packed.length < (depth + 1) * width)
+                packed = Arrays.copyOf((packed == null ? new long[0] : packed), Math.max(64, 2 * (depth + 1)) * width);
+            
+            int offset = depth * width;
+            fixedCodec.encode(state, packed, offset);
+            for (int d = 0; d < depth; d++)
+                if (Arrays.equals(packed, d * width, d * width + width, packed, offset, offset + width))
+                    return false;
+        } else {
+            if (keys == null || keys.length <= depth)
+                keys = Arrays.copyOf((keys == null ? new Object[0] : keys), Math.max(64, 2 * (depth + 1)));
+            
+            keys[depth] = (codec != null ? new PackedState(codec.encode(state)) : state.key());
+            for (int d = 0; d < depth; d++)
+                if (keys[d].equals(keys[depth]))
+                    return false;
+        }
+        return true;
+    }
+    
+    //Creates the nodes of the path of the given depth by replaying the objective functions of its moves.
+    private List<Node<T>> path(int depth, ToIntFunction<T> heuristic) {
+        List<Node<T>> path = new ArrayList<>(depth + 1);
+        Node<T> node = initialNode;
+        path.add(node);
+        for (int d = 1; d <= depth; d++) {
+            Move<T> move = moveList.get(moves[d]);
+            T state = move.objectiveFunction().apply(node.getState());
+            node = new Node<>(state, node, move, pathCosts[d] + heuristic.applyAsInt(state), pathCosts[d], d);
+            path.add(node);
+        }
+        
+        return Collections.unmodifiableList(path);
+    }
+    
+    private void grow() {
+        int length = moves.length << 1;
+        moves = Arrays.copyOf(moves, length);
+        nextMoves = Arrays.copyOf(nextMoves, length);
+        pathCosts = Arrays.copyOf(pathCosts, length);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+/**
+ * An optional in-place form of a {@link Move}, which changes a mutable state rather than creating a new one,
+ * and can undo the change.
+ * 
+ * <p>
+ * If every move of a problem has a mutation, the depth first, iterative deepening and IDA* searches of
+ * {@code TreeEngine} search on the initial state itself: they apply the mutations while going deeper and undo them
+ * while backtracking, so that no state is created per step. The objective functions of the moves are still used to
+ * create the states of the returned path, by replaying the moves of the path from the initial state.
+ * </p>
+ * 
+ * <p>
+ * <i>
+ * <b>Important</b>: since the state changes, it cannot be identified by itself or by its memoized fingerprint.
+ * A state which is mutated MUST override {@code State.key} to return a value which does not change with the state
+ * (such as a {@code Long} of its packed fields), unless the engine has a codec of the states. The initial state is
+ * restored when the search returns.
+ * </i>
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public interface Mutation<T extends State> {
+    /**
+     * Applies the move to the state in place, if the move is available at the state.
+     * @param state the state to change
+     * @return true if the move is applied, false if the move is not available, in which case the state is not changed
+     */
+    boolean apply(T state);
+    
+    /**
+     * Undoes the move, which is the last move applied to the state, restoring the state exactly as it was before.
+     * @param state the state to restore
+     */
+    void undo(T state);
+}
@@ -15,7 +15,8 @@ import java.io.*;
  * <ul>
  * <li>Parent, Node that represents the parent of this node in a search tree.</li>
  * <li>Move, the move that resulted in this Node being the current state of a search.</li>
- * <li>Cost, the cost in order to reach this node.</li>
+ * <li>Cost, the cost in order to reach this node, including any heuristics applied.</li>
+ * <li>Path cost, the sum of the costs of the moves from the root to this node.</li>
  * <li>Depth, depth of the this node.</li>
  * </ul>
  * 
@@ -32,19 +33,21 @@ public final class Node<T extends State> implements Comparable<Node<T>> {
     private final Node<T> parent;
     private final Move<T> move;
     private final int cost;
+    private final int pathCost;
     private final int depth;
     
     private T state;
     
     Node(T state) {
-        this(state, null, null, 0, 0);
+        this(state, null, null, 0, 0, 0);
     }
     
-    Node(T state, Node parent, Move<T> move, int cost, int depth) {
+    Node(T state, Node parent, Move<T> move, int cost, int pathCost, int depth) {
         this.state = state;
         this.parent = parent;
         this.move = move;
         this.cost = cost;
+        this.pathCost = pathCost;
         this.depth = depth;
     }
     
@@ -74,6 +77,14 @@ public final class Node<T extends State> implements Comparable<Node<T>> {
         return this.cost;
     }
     
+    /**
+     * Returns the sum of the costs of the Moves from root Node to this Node, excluding any heuristics.
+     * @return path cost from root Node to this Node
+     */
+    public int getPathCost() {
+        return this.pathCost;
+    }
+    
     /**
      * Returns the depth (number of nodes from this to root) of this node.
      * @return the depth of this Node in the Search Tree
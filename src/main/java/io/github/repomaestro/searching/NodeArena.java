@@ -0,0 +1,161 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a store of the nodes of a search tree in parallel primitive arrays (struct of arrays),
+ * where each node is an integer handle rather than a {@link Node} object.
+ * 
+ * <p>
+ * The handle of a node is the number of the nodes added before it, so the root is handle 0. For each handle, the
+ * arena holds the handle of the parent (-1 for the root), the index of the move in the move list (-1 for the root),
+ * the path cost and the depth in int arrays, which is 16 bytes per node. The states are held in an array of references,
+ * or in a long array of their packed forms if the arena has a codec whose packed form is fixed-width, in which case
+ * a state is decoded whenever it is queried.
+ * </p>
+ * 
+ * This class is package-private and used only by the searches of {@link TreeEngine}.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class NodeArena<T extends State> {
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private StateCodec<T> codec;
+    private int width;
+    
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private int[] pathCosts = new int[INITIAL_CAPACITY];
+    private int[] depths = new int[INITIAL_CAPACITY];
+    
+    //States of the nodes, or their packed forms if there is a fixed-width codec.
+    private Object[] states;
+    private long[] packed;
+    
+    private int size;
+    
+    /**
+     * Constructs an empty arena.
+     * @param codec codec of the states whose packed forms are held instead of the states, null to hold the states
+     */
+    NodeArena(StateCodec<T> codec) {
+        reset(codec);
+    }
+    
+    /**
+     * Adds a node.
+     * @param state state of the node
+     * @param parent handle of the parent node, -1 for the root
+     * @param move index of the move that resulted in the node, -1 for the root
+     * @param pathCost path cost of the node
+     * @param depth depth of the node
+     * @return handle of the node
+     */
+    int add(T state, int parent, int move, int pathCost, int depth) {
+        if (size == parents.length)
+            grow();
+        
+        parents[size] = parent;
+        moves[size] = move;
+        pathCosts[size] = pathCost;
+        depths[size] = depth;
+        if (codec != null)
+            codec.encode(state, packed, size * width);
+        else
+            states[size] = state;
+        
+        return size++;
+    }
+    
+    T state(int handle) {
+        if (codec != null)
+            return codec.decode(packed, handle * width);
+        
+        @SuppressWarnings("unchecked")
+        T state = (T) states[handle];
+        return state;
+    }
+    
+    int parent(int handle) {
+        return parents[handle];
+    }
+    
+    int move(int handle) {
+        return moves[handle];
+    }
+    
+    int pathCost(int handle) {
+        return pathCosts[handle];
+    }
+    
+    int depth(int handle) {
+        return depths[handle];
+    }
+    
+    /**
+     * Returns the number of the nodes, which is also the handle of the next node to be added.
+     * @return number of the nodes
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the number of the nodes this arena can hold without growing.
+     * @return capacity of this arena
+     */
+    int capacity() {
+        return parents.length;
+    }
+    
+    /**
+     * Removes all the nodes, keeping the arrays for reuse. The states which are held are released.
+     */
+    void clear() {
+        if (codec == null)
+            Arrays.fill(states, 0, size, null);
+        size = 0;
+    }
+    
+    /**
+     * Removes all the nodes and sets the codec of the states, keeping the arrays for reuse.
+     * @param codec codec of the states whose packed forms are held instead of the states, null to hold the states
+     */
+    void reset(StateCodec<T> codec) {
+        if (states != null)
+            clear();
+        size = 0;
+        
+        if (codec != null && codec.width() != StateCodec.VARIABLE) {
+            this.codec = codec;
+            this.width = codec.width();
+            if (packed == null || packed.length < parents.length * width)
+                packed = new long[Math.multiplyExact(parents.length, width)];
+        } else {
+            this.codec = null;
+            this.width = 0;
+            if (states == null || states.length < parents.length)
+                states = new Object[parents.length];
+        }
+    }
+    
+    private void grow() {
+        if (size == Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Node arena cannot grow any further.");
+        
+        int capacity = (int) Math.min((long) size << 1, Integer.MAX_VALUE - 8);
+        parents = Arrays.copyOf(parents, capacity);
+        moves = Arrays.copyOf(moves, capacity);
+        pathCosts = Arrays.copyOf(pathCosts, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        if (codec != null)
+            packed = Arrays.copyOf(packed, Math.multiplyExact(capacity, width));
+        else
+            states = Arrays.copyOf(states, capacity);
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+/**
+ * This enum represents how the nodes generated during a search are stored by {@link TreeEngine}.
+ * 
+ * @author repomaestro
+ */
+public enum NodeStorage {
+    //Each node is a Node object which refers to its parent, pushed to a Fringe
+    OBJECTS,
+    //The nodes are integer handles into parallel primitive arrays, and Node objects are created only for the returned path
+    ARENA,
+    //Like ARENA, but the arena, fringe and closed table are kept per thread and reused by the next search on the thread
+    THREAD_ARENA;
+}
@@ -0,0 +1,27 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.util.Arrays;
+
+/**
+ * This record represents the packed form of a state (see {@link StateCodec}) as a value,
+ * which is equal to another if they have the same longs.
+ * 
+ * This record is package-private and used by {@link TreeEngine} as the identity of the states
+ * whose packed form is wider than a single long.
+ * @author repomaestro
+ */
+record PackedState(long[] code) {
+    @Override
+    public boolean equals(Object another) {
+        return another instanceof PackedState && Arrays.equals(code, ((PackedState) another).code);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(code);
+    }
+}
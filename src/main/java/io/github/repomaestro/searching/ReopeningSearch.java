@@ -0,0 +1,111 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import io.github.repomaestro.searching.fringe.IndexedHeap;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * This class represents the A* search which keeps the best path found to each state.
+ * 
+ * <p>
+ * Each distinct state is given an integer handle, and the fringe is an {@link IndexedHeap} of the handles.
+ * If a cheaper path to a state in the fringe is found, its node is replaced and its priority is decreased in place.
+ * If a cheaper path to an already expanded state is found (which only happens for inconsistent heuristics), the state
+ * is reopened. Hence the search returns an optimal path for an admissible heuristic, and the fringe holds each state
+ * at most once. The ties among the states of equal cost are broken by an optional comparator of the nodes, and then
+ * last-in first-out.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine}, once per search.
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+final class ReopeningSearch<T extends State> {
+    private final Node<T> initialNode;
+    private final List<Move<T>> moveList;
+    private final Function<T, Object> identity;
+    private final Comparator<? super Node<T>> ties;
+    
+    //Handle of each state, the best node found so far for each handle and the number of pushes before its last push.
+    private final Map<Object, Integer> handles = new HashMap<>();
+    private final List<Node<T>> nodes = new ArrayList<>();
+    private long[] sequences = new long[16];
+    private long pushes;
+    
+    private final IndexedHeap heap = new IndexedHeap(this::compareTies);
+    
+    ReopeningSearch(Node<T> initialNode, List<Move<T>> moveList, Function<T, Object> identity, Comparator<? super Node<T>> ties) {
+        this.initialNode = initialNode;
+        this.moveList = moveList;
+        this.identity = identity;
+        this.ties = ties;
+    }
+    
+    /**
+     * Searches for a path from the initial node to the goal, expanding at most to the given depth.
+     * @param evaluator the goal test
+     * @param maxDepth maximum depth to search for the solution
+     * @param heuristic the heuristic function
+     * @return path to the goal, empty list if there is none within the maximum depth
+     */
+    List<Node<T>> pathTo(Predicate<T> evaluator, int maxDepth, ToIntFunction<T> heuristic) {
+        T initialState = initialNode.getState();
+        handles.put(identity.apply(initialState), 0);
+        nodes.add(new Node<>(initialState, null, null, heuristic.applyAsInt(initialState), 0, 0));
+        push(0);
+        
+        while (!heap.isEmpty()) {
+            Node<T> currentNode = nodes.get(heap.pop());
+            
+            if (evaluator.test(currentNode.getState()))
+                return TreeEngine.constructPath(currentNode);
+            else if (currentNode.getDepth() >= maxDepth)
+                continue;
+            
+            for (Move<T> successor : moveList) {
+                T state = successor.objectiveFunction().apply(currentNode.getState());
+                if (state == null)
+                    continue;
+                
+                int pathCost = currentNode.getPathCost() + successor.cost();
+                Object id = identity.apply(state);
+                Integer handle = handles.get(id);
+                if (handle != null && nodes.get(handle).getPathCost() <= pathCost)
+                    continue;
+                
+                Node<T> leafNode = new Node<>(state, currentNode, successor, pathCost + heuristic.applyAsInt(state), pathCost, currentNode.getDepth() + 1);
+                if (handle == null) {
+                    handle = nodes.size();
+                    handles.put(id, handle);
+                    nodes.add(leafNode);
+                } else {
+                    nodes.set(handle, leafNode);
+                }
+                push(handle);
+            }
+        }
+        
+        return Collections.emptyList();
+    }
+    
+    //Pushes a handle, or decreases its cost if it is already in the heap, as the last pushed one.
+    private void push(int handle) {
+        if (handle == sequences.length)
+            sequences = Arrays.copyOf(sequences, handle << 1);
+        
+        sequences[handle] = pushes++;
+        if (heap.contains(handle))
+            heap.decreaseKey(handle, nodes.get(handle).getCost());
+        else
+            heap.push(handle, nodes.get(handle).getCost());
+    }
+    
+    private int compareTies(int a, int b) {
+        int order = (ties == null ? 0 : ties.compare(nodes.get(a), nodes.get(b)));
+        return order != 0 ? order : Long.compare(sequences[b], sequences[a]);
+    }
+}
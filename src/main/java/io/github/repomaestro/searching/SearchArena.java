@@ -0,0 +1,104 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import io.github.repomaestro.searching.closed.StampedClosedSet;
+import io.github.repomaestro.searching.fringe.IndexedHeap;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * This class represents the storage of a search over the handles of a {@link NodeArena}: the nodes, the int stack
+ * of the depth first search, the heap of the best-first searches and a closed table of the identities of the states.
+ * 
+ * <p>
+ * A search either uses a new arena, or the arena of its thread ({@link #acquire()}) which is reset and reused by the
+ * next search on the same thread, so that a thread which runs many small searches allocates the arrays only once.
+ * Resetting the closed table takes constant time, and resetting the rest takes time proportional to the number of
+ * nodes of the previous search. The closed table is created on the first use, as only the searches which keep their
+ * closed set in the arena of their thread need it. An arena which has grown larger than {@link #MAXIMUM_RETAINED_NODES} is not kept
+ * for reuse, so that a single large search does not hold on to its memory.
+ * </p>
+ * 
+ * This class is package-private and used only by {@link TreeEngine} and {@link ArenaSearch}.
+ * @author repomaestro
+ */
+final class SearchArena {
+    /**
+     * Largest number of nodes an arena can hold and still be kept for the next search on its thread.
+     */
+    static final int MAXIMUM_RETAINED_NODES = 1 << 20;
+    
+    private static final ThreadLocal<SearchArena> ARENAS = ThreadLocal.withInitial(SearchArena::new);
+    
+    private final NodeArena<State> nodes = new NodeArena<>(null);
+    final IndexedHeap heap = new IndexedHeap(this::compareTies);
+    private StampedClosedSet<State> closed;
+    int[] stack = new int[64];
+    
+    //Comparator of the handles of equal cost in the heap, set by the search which uses this arena.
+    IntBinaryOperator ties;
+    
+    //Whether this arena is the arena of its thread, and whether a search on the thread is using it.
+    private boolean shared;
+    private boolean inUse;
+    
+    /**
+     * Returns the arena of the current thread, reset for a new search, or a new arena if a search on the
+     * current thread is already using it (e.g. a search started from the goal test of another search).
+     * The arena must be released by {@link #release()} after the search.
+     * @return an empty arena
+     */
+    static SearchArena acquire() {
+        SearchArena arena = ARENAS.get();
+        if (arena.inUse)
+            return new SearchArena();
+        
+        arena.shared = true;
+        arena.inUse = true;
+        arena.heap.clear();
+        if (arena.closed != null)
+            arena.closed.clear();
+        return arena;
+    }
+    
+    /**
+     * Returns the node arena of this arena, for the states of the search which uses it.
+     * @param <T> type of state
+     * @return the node arena
+     */
+    @SuppressWarnings("unchecked")
+    <T extends State> NodeArena<T> nodes() {
+        //The arena is reset with the codec of each search, and holds only the states of that search.
+        return (NodeArena<T>) (NodeArena<?>) nodes;
+    }
+    
+    /**
+     * Returns the closed table of this arena, creating it on the first call.
+     * @return the closed table of the identities of the states
+     */
+    StampedClosedSet<State> closed() {
+        if (closed == null)
+            closed = new StampedClosedSet<>();
+        return closed;
+    }
+    
+    /**
+     * Releases this arena after a search, dropping it from its thread if it has grown too large.
+     */
+    void release() {
+        if (!shared)
+            return;
+        
+        inUse = false;
+        ties = null;
+        nodes.clear();
+        if (nodes.capacity() > MAXIMUM_RETAINED_NODES || (closed != null && closed.capacity() > 2 * MAXIMUM_RETAINED_NODES))
+            ARENAS.remove();
+    }
+    
+    private int compareTies(int a, int b) {
+        return ties.applyAsInt(a, b);
+    }
+}
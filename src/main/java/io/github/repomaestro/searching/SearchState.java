@@ -0,0 +1,42 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a sub-class of {@link State} whose identity is generated at compile time.
+ * 
+ * <p>
+ * For each class annotated with this annotation, the annotation processor supplied by this API generates
+ * a {@link StateIdentity} class (named as the class name followed by "_SearchState", nested class names
+ * being joined with "_") in the same package, from the instance fields declared by the annotated class.
+ * {@code State} then uses the generated class for equality, hashing and fingerprinting instead of
+ * serializing the state. If the fields are of primitive and enum types, the generated class is also a codec of
+ * the state with a fixed-width packed form (see {@code StateCodec.generated}).
+ * </p>
+ * 
+ * <p>
+ * The annotated class:
+ * </p>
+ * <ul>
+ * <li>MUST be a top-level or static nested class which directly extends {@code State},</li>
+ * <li>MUST NOT have private instance fields, since they are accessed by the generated class,</li>
+ * <li>SHOULD have a non-private constructor whose parameters are the instance fields in the order of
+ * declaration, which is used by the codec to decode a state.</li>
+ * </ul>
+ * 
+ * <p>
+ * The annotation processor is discovered from the class path by the Java compiler. If annotation
+ * processing is disabled by default (as in recent versions of {@code javac}), it must be enabled
+ * with {@code -proc:full} or by naming the processor with
+ * {@code -processor io.github.repomaestro.searching.processor.SearchStateProcessor}.
+ * </p>
+ * @author repomaestro
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SearchState {}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -43,11 +44,147 @@ import java.util.Arrays;
  * @author repomaestro
  */
 public abstract class State implements Serializable {
+    //Identities generated for the classes annotated with SearchState, null for the other classes.
+    private static final ClassValue<StateIdentity<State>> IDENTITIES = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected StateIdentity<State> computeValue(Class<?> type) {
+            if (!type.isAnnotationPresent(SearchState.class))
+                return null;
+            
+            String identityName = type.getName().replace('$', '_') + "_SearchState";
+            try {
+                //The generated identity of a class is applied only to the instances of that class.
+                return (StateIdentity<State>) Class.forName(identityName, true, type.getClassLoader()).getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(String.format(
+                        "Generated identity %s of %s cannot be instantiated (make sure annotation processing is enabled).",
+                        identityName, type), 
+                        e);
+            }
+        }
+    };
+    
+    //Memoized fingerprint of this state, transient so that it does not take part in the serialized form.
+    private transient long fingerprint;
+    private transient boolean fingerprinted;
+    
+    /**
+     * Returns the identity generated for the given class annotated with {@link SearchState}.
+     * @param type class of the state
+     * @return the generated identity, null if the class is not annotated with {@code SearchState}
+     */
+    static StateIdentity<State> identity(Class<?> type) {
+        return IDENTITIES.get(type);
+    }
+    
+    /**
+     * Returns the identity key of this state.
+     * 
+     * <p>
+     * Two states are the same state of a search problem if and only if their keys are equal.
+     * {@code TreeEngine} uses the key (rather than the state itself) wherever it needs the identity
+     * of a state, such as in duplicate detection.
+     * </p>
+     * 
+     * <p>
+     * The default implementation returns this state itself, in which case the identity of the state falls back
+     * to the serialization based {@code equals} and {@code hashCode} of this class.
+     * Sub-classes are encouraged to override this method and return a compact value whose {@code equals} and
+     * {@code hashCode} are cheap, for example {@code List.of(x, y)}, a record of the fields or a packed {@code Long}.
+     * If this method is overridden, {@code equals} and {@code hashCode} of this class use the returned key as well.
+     * </p>
+     * @return the identity key of this state, this state itself if there is no compact key
+     */
+    public Object key() {
+        return this;
+    }
+    
+    /**
+     * Returns the 64-bit fingerprint of this state.
+     * 
+     * <p>
+     * The fingerprint is computed by {@link #computeFingerprint()} once, on the first call of this method,
+     * and is memoized afterwards. Hence states are expected to be immutable (as they should be anyway), since
+     * a change in a state after its fingerprint is computed is not reflected in the fingerprint.
+     * </p>
+     * 
+     * <p>
+     * Equal states have equal fingerprints. States with different fingerprints are never equal, which
+     * {@code equals} of this class uses to reject unequal states before doing a full comparison.
+     * </p>
+     * @return the fingerprint of this state
+     */
+    public final long fingerprint() {
+        if (!fingerprinted) {
+            fingerprint = computeFingerprint();
+            fingerprinted = true;
+        }
+        return fingerprint;
+    }
+    
+    /**
+     * Sets the fingerprint of this state if it is not computed yet, used by {@code TreeEngine} for
+     * the fingerprints supplied by {@link IncrementalHash} of a {@link Move}.
+     * @param fingerprint the fingerprint of this state
+     */
+    void fingerprint(long fingerprint) {
+        if (!fingerprinted) {
+            this.fingerprint = fingerprint;
+            this.fingerprinted = true;
+        }
+    }
+    
+    /**
+     * Discards the memoized fingerprint of this state, used by {@code TreeEngine} after it changes a state
+     * by a {@link Mutation}.
+     */
+    void forgetFingerprint() {
+        fingerprinted = false;
+    }
+    
+    /**
+     * Computes the 64-bit fingerprint of this state, called at most once per instance (per change, for a state changed by a {@link Mutation}) by {@link #fingerprint()}.
+     * 
+     * <p>
+     * This method is not called for states whose fingerprint is derived by the {@link IncrementalHash} of
+     * the {@link Move} that resulted in them.
+     * The default implementation derives the fingerprint from the key if the sub-class supplies its own key
+     * (see {@link #key()}), from the generated {@link StateIdentity} if the sub-class is annotated
+     * with {@link SearchState}, otherwise from the serialized form of this state.
+     * A key is fingerprinted by its contents if it is a boxed primitive, a string, an enum, a state, or a list, set,
+     * map or record of such values, so that its fingerprint carries all the 64 bits; a key of any other type is
+     * fingerprinted by its hash code, which carries only 32 bits.
+     * Sub-classes which override {@code equals} without overriding {@link #key()} should override this
+     * method as well, so that equal states have equal fingerprints.
+     * </p>
+     * @return the fingerprint of this state
+     */
+    protected long computeFingerprint() {
+        Object thisKey = key();
+        if (thisKey instanceof Long)
+            return mix((Long) thisKey);
+        else if (thisKey != this)
+            return KeyFingerprint.of(thisKey);
+        
+        StateIdentity<State> identity = IDENTITIES.get(getClass());
+        if (identity != null)
+            return identity.fingerprint(this);
+        
+        //xxHash of the serialized form, streamed directly into the hash.
+        XXHash64OutputStream hashOut = new XXHash64OutputStream();
+        serialize(this, hashOut);
+        return hashOut.digest();
+    }
+    
     /**
      * Checks the equality between this object and another.
      * 
      * <p>
-     * This method is provided by this class does a deep checking. That is,
+     * If the sub-class supplies its own key (see {@link #key()}), two states are equal if they are of the same
+     * class and their keys are equal. If the sub-class is annotated with {@link SearchState}, the equality is
+     * checked by its generated {@link StateIdentity}.
+     * Otherwise, this method does a deep checking. That is,
      * two objects are equal if they represent identical structures in heap/memory.
      * </p>
      * @param another object to check equality
@@ -55,8 +192,23 @@ public abstract class State implements Serializable {
      */
     @Override
     public boolean equals(Object another) {
+        if (this == another)
+            return true;
+        
         if (!(another instanceof State))
                 return false;
+        
+        State other = (State) another;
+        if (getClass() != other.getClass() || fingerprint() != other.fingerprint())
+            return false;
+        
+        Object thisKey = key();
+        if (thisKey != this)
+            return thisKey.equals(other.key());
+        
+        StateIdentity<State> identity = IDENTITIES.get(getClass());
+        if (identity != null)
+            return identity.equal(this, other);
                 
         byte[] thisData = serialize(this);
         byte[] otherData = serialize(another);
@@ -65,25 +217,27 @@ public abstract class State implements Serializable {
     }
     
     
+    /**
+     * Returns the hash code of this state, which is derived from its memoized fingerprint.
+     * @return the hash code of this state
+     */
     @Override
     public int hashCode() {
-        byte[] thisData = serialize(this);
-        int hash = 1;
-        for (int i = 0; i < thisData.length; i++) {
-            if (thisData[i] == 0)
-                hash += 7 * i;
-            else 
-                hash *= thisData[i];
-        }
-        return hash;
+        long thisFingerprint = fingerprint();
+        return (int) (thisFingerprint ^ (thisFingerprint >>> 32));
     }
     
     private byte[] serialize(Object o) {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        serialize(o, byteOut);
+        return byteOut.toByteArray();
+    }
+    
+    private void serialize(Object o, OutputStream out) {
         try {
-            ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-            ObjectOutputStream objectOut = new ObjectOutputStream(byteOut);
+            ObjectOutputStream objectOut = new ObjectOutputStream(out);
             objectOut.writeObject(o);
-            return byteOut.toByteArray();
+            objectOut.flush();
         } catch (NotSerializableException e) {
             throw new RuntimeException(String.format(
                     "%s is not serializable (make sure its fields are serializable).", 
@@ -93,4 +247,11 @@ public abstract class State implements Serializable {
             throw new RuntimeException(e);
         }
     }
+    
+    //Finalizer of SplitMix64, spreads the bits of the given value over all 64 bits.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
 }
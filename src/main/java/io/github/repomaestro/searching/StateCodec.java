@@ -0,0 +1,137 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * This interface represents a codec which packs states into primitive storage and unpacks them back.
+ * 
+ * <p>
+ * A codec has two forms:
+ * </p>
+ * <ul>
+ * <li>The packed form, a fixed number of longs ({@link #width()}) per state, which lets the states be
+ * stored in primitive arrays instead of as objects. Codecs of states with variable size
+ * (e.g. states having arrays of varying length) do not have a packed form, and their width is {@link #VARIABLE}.</li>
+ * <li>The binary form, a (possibly variable) number of bytes written to a {@code DataOutput}. By default it is
+ * the packed form written long by long.</li>
+ * </ul>
+ * 
+ * <p>
+ * Decoding an encoded state MUST result in a state equal to it. Moreover, two states MUST be equal if and only
+ * if their packed forms are equal, as {@code TreeEngine} compares the packed forms of the states in place of the
+ * states, if it is given a codec.
+ * </p>
+ * 
+ * <p>
+ * Codecs are generated at compile time for the classes annotated with {@link SearchState}, see {@link #generated(Class)}.
+ * A hand-written codec for the 2D example of this package packs both coordinates into a single long:
+ * </p>
+ * 
+ * <pre>
+ * {@code
+        StateCodec<GameState> codec = new StateCodec<>() {
+            public int width() {
+                return 1;
+            }
+            
+            public void encode(GameState gs, long[] target, int offset) {
+                target[offset] = ((long) gs.x << 32) | (gs.y & 0xFFFFFFFFL);
+            }
+            
+            public GameState decode(long[] source, int offset) {
+                return new GameState((int) (source[offset] >> 32), (int) source[offset]);
+            }
+        };
+ * }
+ * </pre>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public interface StateCodec<T extends State> {
+    /**
+     * Width of the codecs which do not have a packed form.
+     */
+    int VARIABLE = -1;
+    
+    /**
+     * Returns the number of longs every state is packed into.
+     * @return width of the packed form, {@link #VARIABLE} if there is no packed form
+     */
+    int width();
+    
+    /**
+     * Packs a state into {@link #width()} longs of the target array, starting at the given offset.
+     * @param state the state to encode
+     * @param target the array to pack the state into
+     * @param offset index of the first long of the state in the array
+     * @throws UnsupportedOperationException if this codec has no packed form
+     */
+    void encode(T state, long[] target, int offset);
+    
+    /**
+     * Unpacks a state from {@link #width()} longs of the source array, starting at the given offset.
+     * @param source the array to unpack the state from
+     * @param offset index of the first long of the state in the array
+     * @return the decoded state
+     * @throws UnsupportedOperationException if this codec has no packed form
+     */
+    T decode(long[] source, int offset);
+    
+    /**
+     * Packs a state into a new array.
+     * @param state the state to encode
+     * @return packed form of the state
+     */
+    default long[] encode(T state) {
+        long[] code = new long[width()];
+        encode(state, code, 0);
+        return code;
+    }
+    
+    /**
+     * Writes the binary form of a state.
+     * @param state the state to write
+     * @param out the output to write the state to
+     * @throws IOException if an I/O error occurs
+     */
+    default void write(T state, DataOutput out) throws IOException {
+        for (long l : encode(state))
+            out.writeLong(l);
+    }
+    
+    /**
+     * Reads a state which is written by {@link #write(State, DataOutput)}.
+     * @param in the input to read the state from
+     * @return the read state
+     * @throws IOException if an I/O error occurs
+     */
+    default T read(DataInput in) throws IOException {
+        long[] code = new long[width()];
+        for (int i = 0; i < code.length; i++)
+            code[i] = in.readLong();
+        return decode(code, 0);
+    }
+    
+    /**
+     * Returns the codec generated for a class annotated with {@link SearchState}.
+     * @param <T> type of state
+     * @param type class of the state
+     * @return the generated codec
+     * @throws IllegalArgumentException if no codec is generated for the class
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends State> StateCodec<T> generated(Class<T> type) {
+        StateIdentity<State> identity = State.identity(type);
+        if (!(identity instanceof StateCodec))
+            throw new IllegalArgumentException(String.format("No codec is generated for %s.", type));
+        
+        return (StateCodec<T>) identity;
+    }
+}
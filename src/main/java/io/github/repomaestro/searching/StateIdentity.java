@@ -0,0 +1,78 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+/**
+ * This interface represents the identity of a state type, that is equality and fingerprinting of
+ * its instances.
+ * 
+ * <p>
+ * Implementations of this interface are generated at compile time for the classes annotated with
+ * {@link SearchState}, and are used by {@link State} in place of its serialization based identity.
+ * The static methods of this interface are used by the generated implementations for combining the
+ * fields of a state into a fingerprint.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public interface StateIdentity<T extends State> {
+    /**
+     * Initial value of a fingerprint, before any field is combined into it.
+     */
+    long SEED = 0x27D4EB2F165667C5L;
+    
+    /**
+     * Checks whether two states of this type are equal.
+     * @param a a state
+     * @param b another state
+     * @return true if states are equal
+     */
+    boolean equal(T a, T b);
+    
+    /**
+     * Computes the fingerprint of a state of this type.
+     * Equal states MUST have equal fingerprints.
+     * @param state the state
+     * @return 64-bit fingerprint of the state
+     */
+    long fingerprint(T state);
+    
+    /**
+     * Combines a value into a fingerprint.
+     * @param hash fingerprint of the values combined so far
+     * @param value the value
+     * @return fingerprint of the values combined so far and the given value
+     */
+    static long combine(long hash, long value) {
+        hash ^= Long.rotateLeft(value * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B185EBCA87L;
+        return Long.rotateLeft(hash, 27) * 0x9E3779B185EBCA87L + 0x85EBCA77C2B2AE63L;
+    }
+    
+    /**
+     * Combines the fingerprint of an object (which can be null) into a fingerprint. The fingerprint of an object
+     * is derived from its contents for the boxed primitives, strings, enums, states, lists, sets, maps and records,
+     * and from its hash code for the objects of other types.
+     * @param hash fingerprint of the values combined so far
+     * @param value the object
+     * @return fingerprint of the values combined so far and the given object
+     */
+    static long combine(long hash, Object value) {
+        return combine(hash, KeyFingerprint.of(value));
+    }
+    
+    /**
+     * Finishes a fingerprint, so that every bit of it depends on every combined value.
+     * @param hash fingerprint of all the combined values
+     * @return the final fingerprint
+     */
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 29;
+        hash *= 0x165667B19E3779F9L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -5,6 +5,9 @@
 package io.github.repomaestro.searching;
 
 import io.github.repomaestro.searching.algorithm.*;
+import io.github.repomaestro.searching.closed.*;
+import io.github.repomaestro.searching.fringe.*;
+import java.nio.file.*;
 import java.util.*;
 import java.util.function.*;
 
@@ -26,64 +29,31 @@ import java.util.function.*;
  * @author repomaestro
  */
 public class TreeEngine<T extends State> {
-    /**
-     * Fringe class represents a "search fringe", pretty much a data structure
-     * whose internal definition changes based on the search algorithm.
-     * 
-     * As per the definition of the Fringe in searching, the behavior of the instances
-     * of this class also changes based on the supplied Algorithm enum constant A.
-     * 
-     * This class is private to the {@code TreeEngine} class and used only within the operations
-     * defined in the class.
-     */
-    private static class Fringe<T extends State> {
-        private final Algorithm A;
-        private Stack<Node<T>> stack;
-        private Queue<Node<T>> queue;
-        
-        public Fringe(Algorithm A) {
-            this.A = A;
-            
-            if (A == SearchAlgorithm.DFS || A == SearchAlgorithm.IDS)
-                stack = new Stack<>();
-            else if (A == SearchAlgorithm.BFS)
-                queue = new ArrayDeque<>();
-            else if (A == SearchAlgorithm.UCS || A == HeuristicAlgorithm.A_STAR || A == HeuristicAlgorithm.GS)
-                queue = new PriorityQueue<>();
-        }
-        
-        public void push(Node<T> node) {
-            if (A == SearchAlgorithm.DFS || A == SearchAlgorithm.IDS)
-                stack.push(node);
-            else if (A == SearchAlgorithm.UCS || A == SearchAlgorithm.BFS || A == HeuristicAlgorithm.A_STAR || A == HeuristicAlgorithm.GS)
-                queue.add(node);
-        }
-        
-        public Node<T> pop() {
-            if (A == SearchAlgorithm.DFS || A == SearchAlgorithm.IDS)
-                return stack.pop();
-            else if (A == SearchAlgorithm.UCS || A == SearchAlgorithm.BFS || A == HeuristicAlgorithm.A_STAR || A == HeuristicAlgorithm.GS)
-                return queue.remove();
-            else
-                return null;
-        }
-        
-        public boolean isEmpty() {
-            if (A == SearchAlgorithm.DFS || A == SearchAlgorithm.IDS)
-                return stack.isEmpty();
-            else if (A == SearchAlgorithm.UCS || A == SearchAlgorithm.BFS || A == HeuristicAlgorithm.A_STAR || A == HeuristicAlgorithm.GS)
-                return queue.isEmpty();
-            else
-                return false;
-        }
-    }
-    
     //Initial node of the tree.
     private Node<T> initialNode;
     
     //Move List of the problem.
     private List<Move<T>> moveList;
     
+    //Optional codec of the states, null if the states are identified by their keys.
+    private StateCodec<T> codec;
+    
+    //Optional factory of the closed sets, null if the default closed set is used.
+    private Supplier<? extends ClosedSet<T>> closedSets;
+    
+    //Optional factory of the fringes by algorithm, null if the fringe of the algorithm is used.
+    private Function<Algorithm, ? extends Fringe<T>> fringes;
+    
+    //Optional comparator of the nodes of equal cost in the best-first fringes, null for the default order.
+    private Comparator<? super Node<T>> ties;
+    
+    //Storage of the generated nodes.
+    private NodeStorage nodeStorage = NodeStorage.OBJECTS;
+    
+    //Directory of the files and the number of states per sorted run of the external-memory searches.
+    private Path externalDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+    private int runSize = 1 << 20;
+    
     /**
      * Constructs this TreeEngine with an initial state and list of Moves
      * @param initialState the state which is the start/initial state of a search problem,
@@ -133,6 +103,119 @@ public class TreeEngine<T extends State> {
         return moveList;
     }
     
+    /**
+     * Sets the codec of the states.
+     * 
+     * <p>
+     * If a codec with a packed form is set, the searches identify the states by their packed forms
+     * rather than by their keys, so that the duplicate detection neither holds references to the states nor calls
+     * {@code equals} and {@code hashCode} of the states.
+     * </p>
+     * @param codec codec of the states, null to identify the states by their keys
+     * @return this TreeEngine
+     */
+    public TreeEngine<T> codec(StateCodec<T> codec) {
+        if (codec != null && codec.width() <= 0)
+            throw new IllegalArgumentException("Codec must have a packed form!");
+        
+        this.codec = codec;
+        return this;
+    }
+    
+    /**
+     * Returns the codec of the states.
+     * @return codec of the states, null if there is none
+     */
+    public StateCodec<T> codec() {
+        return codec;
+    }
+    
+    /**
+     * Sets the factory of the closed sets, which is called once per search to create the
+     * closed set of the search, e.g. {@code () -> LongClosedSet.of(codec, expectedSize, 0.5f)}
+     * for a pre-sized primitive closed set.
+     * 
+     * <p>
+     * By default, the searches use a {@link LongClosedSet} of the packed forms of the states if there is a codec
+     * whose packed form is a single long, and a {@link HashClosedSet} of the identities (keys or packed forms)
+     * of the states otherwise.
+     * </p>
+     * @param closedSets factory of the closed sets, null to use the default closed set
+     * @return this TreeEngine
+     */
+    public TreeEngine<T> closedSets(Supplier<? extends ClosedSet<T>> closedSets) {
+        this.closedSets = closedSets;
+        return this;
+    }
+    
+    /**
+     * Sets the factory of the fringes, which is called once per search with the algorithm of the search
+     * to create the fringe of the search. This allows plugging in custom frontier structures, e.g.
+     * {@code A -> A == HeuristicAlgorithm.A_STAR ? new MyFringe<>() : Fringe.of(A)}.
+     * @param fringes factory of the fringes, null to use the fringe of the algorithm ({@link Fringe#of(Algorithm, List)})
+     * @return this TreeEngine
+     */
+    public TreeEngine<T> fringes(Function<Algorithm, ? extends Fringe<T>> fringes) {
+        this.fringes = fringes;
+        return this;
+    }
+    
+    /**
+     * Sets the comparator which breaks the ties among the nodes of equal cost in the fringes of the uniform cost,
+     * greedy and A* searches, e.g. {@code TieBreaking.HIGHER_G.comparator()} which expands the deeper nodes of an
+     * f-cost plateau first. The nodes which are still tied are expanded last-in first-out.
+     * This has no effect if a factory of the fringes is set.
+     * @param ties comparator of the nodes of equal cost, ordering the preferred node first, null for the default order
+     * @return this TreeEngine
+     */
+    public TreeEngine<T> tieBreaking(Comparator<? super Node<T>> ties) {
+        this.ties = ties;
+        return this;
+    }
+    
+    /**
+     * Sets the storage of the nodes generated by the breadth first, depth first, iterative deepening, uniform cost,
+     * greedy and A* searches.
+     * 
+     * <p>
+     * With {@link NodeStorage#ARENA}, the nodes are stored as the parent handle, move index, path cost and depth in
+     * parallel int arrays (16 bytes per node), and the states are stored as their packed forms if there is a codec
+     * whose packed form is fixed-width. This removes the allocation of a {@link Node} per generated state, at the
+     * cost of decoding the packed states when they are expanded. The factory of the fringes is not used then.
+     * </p>
+     * 
+     * <p>
+     * With {@link NodeStorage#THREAD_ARENA}, the arena, its fringe and (unless a closed set is given or a factory of
+     * the closed sets is set) a {@link StampedClosedSet} of the identities of the states are kept per thread, and
+     * reset rather than reallocated by the next search on the same thread. This suits many small searches, whose
+     * steady state then allocates little more than the states and the returned path.
+     * </p>
+     * @param nodeStorage storage of the nodes, {@link NodeStorage#OBJECTS} by default
+     * @return this TreeEngine
+     */
+    public TreeEngine<T> nodeStorage(NodeStorage nodeStorage) {
+        this.nodeStorage = Objects.requireNonNull(nodeStorage);
+        return this;
+    }
+    
+    /**
+     * Sets the storage of the external-memory searches (e.g. {@code SearchAlgorithm.EXTERNAL_BFS}).
+     * By default the files are created in the temporary-file directory and a run has 2^20 states.
+     * A run is sorted in a single array, hence the search throws an IllegalArgumentException if the run size times the
+     * record width (twice the codec width plus one) exceeds the maximum array length.
+     * @param directory directory to create the files of the searches in
+     * @param runSize number of states that are sorted in memory and written to the disk as a run
+     * @return this TreeEngine
+     */
+    public TreeEngine<T> externalStorage(Path directory, int runSize) {
+        if (runSize <= 0)
+            throw new IllegalArgumentException(String.format("Run size %d is not positive.", runSize));
+        
+        this.externalDirectory = directory;
+        this.runSize = runSize;
+        return this;
+    }
+    
     /**
      * Tries to find a path from initial node (initial state) to the goal state as specified by the Predicate parameter, 
      * which is basically some kind of evaluator for the goal state (goal condition). Resulting path is returned
@@ -159,17 +242,52 @@ public class TreeEngine<T extends State> {
      * @return immutable List of Nodes which is the path to the solution, empty List if no solution is found with given maximum depth
      */
     public List<Node<T>> pathTo(Predicate<T> evaluator, Algorithm A, int maxDepth, ToIntFunction<T>... heuristics) {
+        return pathTo(evaluator, A, maxDepth, null, heuristics);
+    }
+    
+    /**
+     * Tries to find a path from initial node (initial state) to the goal state, using the given closed set
+     * for the duplicate detection.
+     * This method behaves the same way as<br>
+     * {@code TreeEngine.pathTo(Predicate<T>, Algorithm, int, ToIntFunction<T>...)}<br>
+     * except that the closed set is not created by this TreeEngine but is supplied by the caller, who controls its
+     * capacity and lifecycle (e.g. an {@link OffHeapClosedSet} which is closed after the search).
+     * The closed set must be empty, and is left holding the generated states after this method returns.
+     * @param evaluator the predicate whose Predicate.test(State) will be called to check if the state is the goal state
+     * @param A the search algorithm
+     * @param maxDepth maximum depth to search for the solution
+     * @param closedSet the closed set of the search, null to create one as configured by {@link #closedSets(Supplier)}
+     * @param heuristics varargs heuristics whose length must be (n)one
+     * @return immutable List of Nodes which is the path to the solution, empty List if no solution is found with given maximum depth
+     */
+    public List<Node<T>> pathTo(Predicate<T> evaluator, Algorithm A, int maxDepth, ClosedSet<T> closedSet, ToIntFunction<T>... heuristics) {
         if (!(A instanceof SearchAlgorithm || A instanceof HeuristicAlgorithm))
             throw new IllegalArgumentException(String.format("Algorithm \"%s\" is not supported.", A));
         
         if (heuristics.length > 1)
             throw new IllegalArgumentException("Number of heuristic functions (objects) that are passed cannot be larger than one!");
         
+        if (A == HeuristicAlgorithm.MM)
+            throw new IllegalArgumentException(String.format("Algorithm \"%s\" requires a goal state, see TreeEngine.bidirectionalPathTo.", A));
+        
+        if (A == HeuristicAlgorithm.WEIGHTED_A_STAR || A == HeuristicAlgorithm.FOCAL)
+            throw new IllegalArgumentException(String.format("Algorithm \"%s\" requires a weight, see TreeEngine.boundedPathTo.", A));
+        
+        if (A == SearchAlgorithm.EXTERNAL_BFS) {
+            if (codec == null)
+                throw new IllegalStateException(String.format("Algorithm \"%s\" requires a codec of the states.", A));
+            
+            return new ExternalSearch<>(initialNode, moveList, codec, externalDirectory, runSize).pathTo(evaluator, maxDepth);
+        }
+        
         if (A == SearchAlgorithm.IDS) {
             int depth = 1;
             List<Node<T>> path = Collections.EMPTY_LIST;
             while (path.equals(Collections.EMPTY_LIST) && depth <= maxDepth) {
-                path = pathTo(evaluator, SearchAlgorithm.DFS, depth, heuristics);
+                if (closedSet != null)
+                    closedSet.clear();
+                
+                path = pathTo(evaluator, SearchAlgorithm.DFS, depth, closedSet, heuristics);
                 depth++;
             }
             
@@ -178,12 +296,41 @@ public class TreeEngine<T extends State> {
         
         //Initialize the heuristic function to be either none (if heuristics array is of zero-length) and first element if it is non zero-length (one as checked...).
         ToIntFunction<T> heuristic = (heuristics.length == 1 ? heuristics[0] : n -> 0);
-                
-        //The Fringe is of type Fringe which is an algorithm dependent data structure.
-        Fringe<T> fringe = new Fringe(A);
+        
+        //IDA* keeps only the current path, without a fringe or a closed set, and changes a single state if the moves have mutations.
+        if (A == HeuristicAlgorithm.IDA_STAR) {
+            if (MutableSearch.supports(moveList))
+                return new MutableSearch<>(initialNode, moveList, codec).deepeningPathTo(evaluator, maxDepth, heuristic);
+            
+            return new IterativeDeepeningSearch<>(initialNode, moveList).pathTo(evaluator, maxDepth, heuristic);
+        }
+        
+        //A* with reopening keeps its own indexed fringe and the best node of each state instead of a closed set.
+        if (A == HeuristicAlgorithm.A_STAR_REOPENING)
+            return new ReopeningSearch<>(initialNode, moveList, this::identity, ties).pathTo(evaluator, maxDepth, heuristic);
+        
+        if (nodeStorage == NodeStorage.THREAD_ARENA) {
+            SearchArena arena = SearchArena.acquire();
+            try {
+                Predicate<T> firstVisit = (closedSet != null ? closedSet::add : closedSets != null ? closedSets.get()::add : state -> arena.closed().addIdentity(identity(state)));
+                return new ArenaSearch<>(initialNode, moveList, arena, codec, A, heuristic, ties).pathTo(evaluator, maxDepth, firstVisit);
+            } finally {
+                arena.release();
+            }
+        }
         
         //Set for duplication prevention.
-        Set<T> dupSet = new HashSet<>(); 
+        ClosedSet<T> dupSet = (closedSet != null ? closedSet : newClosedSet()); 
+        
+        //The depth first search changes a single state if the moves have mutations.
+        if (A == SearchAlgorithm.DFS && MutableSearch.supports(moveList))
+            return new MutableSearch<>(initialNode, moveList, codec).pathTo(evaluator, maxDepth, dupSet::add);
+        
+        if (nodeStorage == NodeStorage.ARENA)
+            return new ArenaSearch<>(initialNode, moveList, new SearchArena(), codec, A, heuristic, ties).pathTo(evaluator, maxDepth, dupSet::add);
+                
+        //The Fringe is an algorithm dependent data structure, chosen once per search.
+        Fringe<T> fringe = (fringes != null ? fringes.apply(A) : Fringe.of(A, moveList, ties));
         
         //Push the root node (the given initial node) to the fringe.
         fringe.push(initialNode);
@@ -212,20 +359,26 @@ public class TreeEngine<T extends State> {
              */
             for (Move<T> successor : moveList) {
                 T state = successor.objectiveFunction().apply(currentNode.getState());
-                if (state == null || !dupSet.add(state)) 
+                if (state == null)
                     continue;
                 
-                int cost = 0;
-                if (A instanceof HeuristicAlgorithm) {
-                    if (A == HeuristicAlgorithm.GS)
-                        cost = heuristic.applyAsInt(state);
-                    else if (A == HeuristicAlgorithm.A_STAR)
-                        cost = successor.cost() + heuristic.applyAsInt(state);
-                } else if (A instanceof SearchAlgorithm) {
-                    cost = successor.cost();
+                if (successor.incrementalHash() != null) {
+                    T parentState = currentNode.getState();
+                    state.fingerprint(successor.incrementalHash().childFingerprint(parentState, parentState.fingerprint(), state));
                 }
+                
+                if (!dupSet.add(state)) 
+                    continue;
+                
+                //The cost is the path cost accumulated from the root, plus the heuristic for A*, or only the heuristic for GS.
+                int pathCost = currentNode.getPathCost() + successor.cost();
+                int cost = pathCost;
+                if (A == HeuristicAlgorithm.GS)
+                    cost = heuristic.applyAsInt(state);
+                else if (A == HeuristicAlgorithm.A_STAR)
+                    cost = pathCost + heuristic.applyAsInt(state);
                     
-                Node leafNode = new Node(state, currentNode, successor, cost, currentNode.getDepth() + 1);
+                Node leafNode = new Node(state, currentNode, successor, cost, pathCost, currentNode.getDepth() + 1);
                 fringe.push(leafNode);
             }
         }
@@ -261,13 +414,136 @@ public class TreeEngine<T extends State> {
         return pathTo(evaluator, HeuristicAlgorithm.A_STAR, Integer.MAX_VALUE,heuristics);
     }
     
+    /**
+     * Tries to find a path from initial node (initial state) to the goal state whose cost is at most the given weight
+     * times the cost of an optimal path, expanding far fewer nodes than the A* search if the weight is above 1.
+     * 
+     * <p>
+     * Supported algorithms are {@code HeuristicAlgorithm.WEIGHTED_A_STAR}, which expands the node of the least
+     * {@code g + weight * h}, and {@code HeuristicAlgorithm.FOCAL}, which expands the node of the least heuristic
+     * among the nodes whose {@code g + h} is at most the weight times the least {@code g + h}. The bound holds if
+     * the heuristic is admissible. The returned path comes with a lower bound on the cost of an optimal path, which
+     * proves the actual suboptimality of the path (see {@link BoundedPath#suboptimality()}). If the search prunes nodes
+     * at the maximum depth, it proves no lower bound and the path comes with the lower bound 0.
+     * </p>
+     * @param evaluator the predicate whose Predicate.test(State) will be called to check if the state is the goal state
+     * @param A the search algorithm
+     * @param weight the suboptimality bound, at least 1
+     * @param maxDepth maximum depth to search for the solution
+     * @param heuristic the heuristic function
+     * @return the path to the solution with the lower bound on the optimal cost, an empty path if no solution is found with given maximum depth
+     */
+    public BoundedPath<T> boundedPathTo(Predicate<T> evaluator, Algorithm A, double weight, int maxDepth, ToIntFunction<T> heuristic) {
+        if (A != HeuristicAlgorithm.WEIGHTED_A_STAR && A != HeuristicAlgorithm.FOCAL)
+            throw new IllegalArgumentException(String.format("Algorithm \"%s\" is not supported for bounded-suboptimal search.", A));
+        
+        if (!(weight >= 1))
+            throw new IllegalArgumentException(String.format("Weight %f is less than 1.", weight));
+        
+        return new BoundedSearch<>(initialNode, moveList, this::identity, A, weight).pathTo(evaluator, maxDepth, heuristic);
+    }
+    
+    /**
+     * Tries to find a path from initial node (initial state) to the given goal state, by searching forward from the
+     * initial state and backward from the goal state until the two searches meet.
+     * 
+     * <p>
+     * The backward search applies the inverse moves, where {@code inverseMoves.get(i)} applied to a state returns the
+     * state which {@code moveList.get(i)} takes to it (or null if there is none). The returned path is made of the
+     * moves of this TreeEngine, as the path of {@code pathTo} is. Supported algorithms are
+     * {@code SearchAlgorithm.BFS}, which finds a path of the least depth, and {@code SearchAlgorithm.UCS}, which finds
+     * a path of the least cost.
+     * </p>
+     * @param goalState the goal state
+     * @param inverseMoves the inverse moves of the moves of this TreeEngine, in the same order
+     * @param A the search algorithm
+     * @param maxDepth maximum depth of the path
+     * @return immutable List of Nodes which is the path to the goal state, empty List if no path is found with given maximum depth
+     */
+    public List<Node<T>> bidirectionalPathTo(T goalState, List<Move<T>> inverseMoves, Algorithm A, int maxDepth) {
+        return bidirectionalPathTo(goalState, inverseMoves, A, maxDepth, null, null);
+    }
+    
+    /**
+     * Tries to find a path from initial node (initial state) to the given goal state, by searching forward from the
+     * initial state and backward from the goal state with a heuristic for each direction.
+     * This method behaves the same way as<br>
+     * {@code TreeEngine.bidirectionalPathTo(T, List<Move<T>>, Algorithm, int)}<br>
+     * except that it also supports {@code HeuristicAlgorithm.MM}, which finds a path of the least cost if the
+     * heuristics are admissible, and ignores the heuristics for the other algorithms.
+     * @param goalState the goal state
+     * @param inverseMoves the inverse moves of the moves of this TreeEngine, in the same order, null if the moves are reversible
+     * @param A the search algorithm
+     * @param maxDepth maximum depth of the path
+     * @param forwardHeuristic estimate of the cost from a state to the goal state, null for none
+     * @param backwardHeuristic estimate of the cost from the initial state to a state, null for none
+     * @return immutable List of Nodes which is the path to the goal state, empty List if no path is found with given maximum depth
+     */
+    public List<Node<T>> bidirectionalPathTo(T goalState, List<Move<T>> inverseMoves, Algorithm A, int maxDepth, ToIntFunction<T> forwardHeuristic, ToIntFunction<T> backwardHeuristic) {
+        if (inverseMoves != null && inverseMoves.size() != moveList.size())
+            throw new IllegalArgumentException(String.format("Number of inverse moves (%d) is not the number of moves (%d).", inverseMoves.size(), moveList.size()));
+        
+        if (A != SearchAlgorithm.BFS && A != SearchAlgorithm.UCS && A != HeuristicAlgorithm.MM)
+            throw new IllegalArgumentException(String.format("Algorithm \"%s\" is not supported for bidirectional search.", A));
+        
+        ToIntFunction<T> none = state -> 0;
+        return new BidirectionalSearch<>(initialNode, goalState, moveList, (inverseMoves == null ? null : new ArrayList<>(inverseMoves)), this::identity,
+                (A == HeuristicAlgorithm.MM && forwardHeuristic != null ? forwardHeuristic : none),
+                (A == HeuristicAlgorithm.MM && backwardHeuristic != null ? backwardHeuristic : none)).pathTo(A, maxDepth);
+    }
+    
+    /**
+     * Tries to find a path from initial node (initial state) to the given goal state, by searching forward from the
+     * initial state and backward from the goal state until the two searches meet.
+     * This method behaves the same way as<br>
+     * {@code TreeEngine.bidirectionalPathTo(T, List<Move<T>>, Algorithm, int)}<br>
+     * for reversible moves, that is if the moves of this TreeEngine can be undone by the moves of this TreeEngine
+     * of the same cost (e.g. left and right). The backward search then applies the moves themselves.
+     * @param goalState the goal state
+     * @param A the search algorithm
+     * @param maxDepth maximum depth of the path
+     * @return immutable List of Nodes which is the path to the goal state, empty List if no path is found with given maximum depth
+     */
+    public List<Node<T>> bidirectionalPathTo(T goalState, Algorithm A, int maxDepth) {
+        return bidirectionalPathTo(goalState, null, A, maxDepth);
+    }
+    
+    /**
+     * Creates the closed set of a search, either by the factory of the closed sets or the default one.
+     * @return a new, empty closed set
+     */
+    private ClosedSet<T> newClosedSet() {
+        if (closedSets != null)
+            return closedSets.get();
+        else if (codec == null)
+            return new HashClosedSet<>();
+        else if (codec.width() == 1)
+            return LongClosedSet.of(codec);
+        else
+            return new HashClosedSet<>(this::identity);
+    }
+    
+    /**
+     * Returns the identity of a state, which is its packed form if there is a codec, its key otherwise.
+     * Packed forms that are a single long are boxed, wider ones are wrapped in a {@code PackedState}.
+     * @param state the state
+     * @return identity of the state
+     */
+    private Object identity(T state) {
+        if (codec == null)
+            return state.key();
+        
+        long[] code = codec.encode(state);
+        return code.length == 1 ? (Object) code[0] : new PackedState(code);
+    }
+    
     /**
      * Constructs path from given goal Node.
      * Returned path is a List of Nodes and is immutable.
      * @param node goal node
      * @return immutable List of Moves which represent the path to the solution
      */
-    private List<Node<T>> constructPath(Node<T> node) {
+    static <T extends State> List<Node<T>> constructPath(Node<T> node) {
         List<Node<T>> path = new ArrayList<>();
         while (node.getParent() != null) {
             path.add(node);
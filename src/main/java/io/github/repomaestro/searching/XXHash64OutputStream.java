@@ -0,0 +1,148 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * This class represents an OutputStream which computes the 64-bit xxHash (XXH64) of the bytes written to it.
+ * 
+ * <p>
+ * Written bytes are consumed in 32-byte stripes as they arrive, thus the hashed data is never
+ * materialized as a whole. The hash is obtained with {@link #digest()} once all the data is written.
+ * </p>
+ * 
+ * This class is package-private and used by {@link State} to hash the serialized form of a state.
+ * @author repomaestro
+ */
+final class XXHash64OutputStream extends OutputStream {
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+    
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    private final long seed;
+    private final byte[] buffer = new byte[32];
+    private int buffered;
+    private long length;
+    
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    
+    XXHash64OutputStream() {
+        this(0);
+    }
+    
+    XXHash64OutputStream(long seed) {
+        this.seed = seed;
+        this.v1 = seed + P1 + P2;
+        this.v2 = seed + P2;
+        this.v3 = seed;
+        this.v4 = seed - P1;
+    }
+    
+    @Override
+    public void write(int b) {
+        buffer[buffered++] = (byte) b;
+        length++;
+        if (buffered == 32) {
+            stripe(buffer, 0);
+            buffered = 0;
+        }
+    }
+    
+    @Override
+    public void write(byte[] bytes, int offset, int count) {
+        length += count;
+        
+        //Complete the partially filled stripe first.
+        if (buffered > 0) {
+            int n = Math.min(count, 32 - buffered);
+            System.arraycopy(bytes, offset, buffer, buffered, n);
+            buffered += n;
+            offset += n;
+            count -= n;
+            if (buffered < 32)
+                return;
+            
+            stripe(buffer, 0);
+            buffered = 0;
+        }
+        
+        //Consume the full stripes in place, and buffer the remainder.
+        for (; count >= 32; offset += 32, count -= 32)
+            stripe(bytes, offset);
+        
+        System.arraycopy(bytes, offset, buffer, 0, count);
+        buffered = count;
+    }
+    
+    /**
+     * Returns the hash of all the bytes written so far.
+     * @return 64-bit xxHash of the written bytes
+     */
+    long digest() {
+        long hash;
+        if (length >= 32) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = seed + P5;
+        }
+        hash += length;
+        
+        int i = 0;
+        for (; i + 8 <= buffered; i += 8) {
+            hash ^= round(0, (long) LONG_LE.get(buffer, i));
+            hash = Long.rotateLeft(hash, 27) * P1 + P4;
+        }
+        if (i + 4 <= buffered) {
+            hash ^= ((int) INT_LE.get(buffer, i) & 0xFFFFFFFFL) * P1;
+            hash = Long.rotateLeft(hash, 23) * P2 + P3;
+            i += 4;
+        }
+        for (; i < buffered; i++) {
+            hash ^= (buffer[i] & 0xFFL) * P5;
+            hash = Long.rotateLeft(hash, 11) * P1;
+        }
+        
+        hash ^= hash >>> 33;
+        hash *= P2;
+        hash ^= hash >>> 29;
+        hash *= P3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+    
+    private void stripe(byte[] bytes, int offset) {
+        v1 = round(v1, (long) LONG_LE.get(bytes, offset));
+        v2 = round(v2, (long) LONG_LE.get(bytes, offset + 8));
+        v3 = round(v3, (long) LONG_LE.get(bytes, offset + 16));
+        v4 = round(v4, (long) LONG_LE.get(bytes, offset + 24));
+    }
+    
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+    
+    private static long merge(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * P1 + P4;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching;
+
+/**
+ * This class represents a Zobrist table for states made of discrete fields.
+ * 
+ * <p>
+ * Each field of a state is given an index, and each field can take one of a fixed number of values,
+ * which are also represented by an index. The table assigns a random 64-bit key to each (field, value)
+ * pair, and the hash of a state is the exclusive or of the keys of its (field, value) pairs. Hence a change
+ * in a field is reflected to the hash in constant time, regardless of the number of fields of the state.
+ * </p>
+ * 
+ * <p>
+ * Typical usage is overriding {@code State.computeFingerprint} to return {@link #hash(int...)} of the fields,
+ * and giving each {@link Move} an {@link IncrementalHash} which calls {@link #update(long, int, int, int)}
+ * for the fields it changes. For example for a sliding puzzle where field i is the tile at cell i:
+ * </p>
+ * 
+ * <pre>
+ * {@code
+        Zobrist zobrist = new Zobrist(9, 9);
+        
+        IncrementalHash<PuzzleState> rehash = (parent, fingerprint, child) -> {
+            long h = zobrist.update(fingerprint, parent.blank, 0, child.tiles[parent.blank]);
+            return zobrist.update(h, child.blank, child.tiles[parent.blank], 0);
+        };
+ * }
+ * </pre>
+ * 
+ * Instances of this class are immutable.
+ * @author repomaestro
+ */
+public final class Zobrist {
+    private final long[] table;
+    private final int values;
+    
+    /**
+     * Constructs a Zobrist table with a fixed seed.
+     * @param fields number of fields of a state
+     * @param values number of values each field can take
+     */
+    public Zobrist(int fields, int values) {
+        this(fields, values, 0x5DEECE66DL);
+    }
+    
+    /**
+     * Constructs a Zobrist table whose keys are generated from the given seed.
+     * @param fields number of fields of a state
+     * @param values number of values each field can take
+     * @param seed seed of the keys
+     */
+    public Zobrist(int fields, int values, long seed) {
+        if (fields <= 0 || values <= 0)
+            throw new IllegalArgumentException(String.format("Number of fields (%d) and values (%d) must be positive!", fields, values));
+        
+        this.values = values;
+        this.table = new long[Math.multiplyExact(fields, values)];
+        
+        //SplitMix64 sequence.
+        long z = seed;
+        for (int i = 0; i < table.length; i++) {
+            z += 0x9e3779b97f4a7c15L;
+            long k = z;
+            k = (k ^ (k >>> 30)) * 0xbf58476d1ce4e5b9L;
+            k = (k ^ (k >>> 27)) * 0x94d049bb133111ebL;
+            table[i] = k ^ (k >>> 31);
+        }
+    }
+    
+    /**
+     * Returns the key of the given field having the given value.
+     * @param field index of the field
+     * @param value index of the value of the field
+     * @return key of the (field, value) pair
+     */
+    public long key(int field, int value) {
+        if (value < 0 || value >= values)
+            throw new IndexOutOfBoundsException(String.format("Value %d is out of bounds [0, %d).", value, values));
+        
+        return table[field * values + value];
+    }
+    
+    /**
+     * Computes the hash of a state from scratch.
+     * @param values value of each field, values[i] is the value of the field i
+     * @return hash of the state
+     */
+    public long hash(int... values) {
+        long hash = 0;
+        for (int field = 0; field < values.length; field++)
+            hash ^= key(field, values[field]);
+        return hash;
+    }
+    
+    /**
+     * Derives the hash of a state from the hash of another state which differs only in the given field.
+     * @param hash hash of the other state
+     * @param field index of the changed field
+     * @param oldValue value of the field in the other state
+     * @param newValue value of the field in the resulting state
+     * @return hash of the resulting state
+     */
+    public long update(long hash, int field, int oldValue, int newValue) {
+        return hash ^ key(field, oldValue) ^ key(field, newValue);
+    }
+}
@@ -13,5 +13,15 @@ public enum HeuristicAlgorithm implements Algorithm {
     //The Greedy Search algorithm
     GS,
     //The A* Search algorithm
-    A_STAR;
+    A_STAR,
+    //The A* Search algorithm which updates the queued nodes in place (decrease-key) and reopens expanded ones on cheaper paths
+    A_STAR_REOPENING,
+    //The Iterative Deepening A* Search algorithm, depth first searches bounded by increasing cost thresholds without a closed set
+    IDA_STAR,
+    //The MM bidirectional heuristic search, which meets in the middle of an optimal path to a goal state (see TreeEngine.bidirectionalPathTo)
+    MM,
+    //The Weighted A* Search algorithm, which finds a path within a weight of the optimal cost (see TreeEngine.boundedPathTo)
+    WEIGHTED_A_STAR,
+    //The Focal Search algorithm, which expands the node closest to the goal among those within a weight of the least cost (see TreeEngine.boundedPathTo)
+    FOCAL;
 }
@@ -17,5 +17,7 @@ public enum SearchAlgorithm implements Algorithm {
     //The Incremental Depth Search algorithm
     IDS,
     //The Uniform Cost algorithm
-    UCS;
+    UCS,
+    //The external-memory Breadth First Search algorithm with delayed duplicate detection, requires a codec of the states
+    EXTERNAL_BFS;
 }
@@ -0,0 +1,182 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+import io.github.repomaestro.searching.StateCodec;
+import io.github.repomaestro.searching.StateIdentity;
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class represents a probabilistic closed set backed by a Bloom filter.
+ * 
+ * <p>
+ * The set holds a few bits per state rather than the states, thus it takes a fraction of the memory of an exact
+ * closed set. In return, a state which was never added may be reported as present (a false positive), in which case
+ * the search regards the state as a duplicate and misses it, along with the states only reachable through it. Hence
+ * this set is meant for huge exploratory searches where an occasional missed state is acceptable.
+ * </p>
+ * 
+ * <p>
+ * The filter is sized by a memory budget and a target false positive rate, which together determine the number of
+ * states the filter can hold at that rate ({@link #expectedSize()}). Beyond that number the false positive rate rises
+ * gradually. {@link #estimatedMissedStates()} estimates the number of states missed so far.
+ * </p>
+ * 
+ * <p>
+ * The estimates assume a hash of the states which is well distributed over all its 64 bits. {@code State.fingerprint}
+ * is, unless the state supplies a key (see {@code State.key}) of a type whose fingerprint is derived from its hash
+ * code, in which case the states with the same hash code are all regarded as the same state. Hashes computed from the
+ * packed forms of the states ({@link #of(StateCodec, double, long)}) have no such restriction.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class BloomClosedSet<T extends State> implements ClosedSet<T> {
+    private final ToLongFunction<? super T> hash;
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedSize;
+    
+    private long size;
+    private double missed;
+    
+    /**
+     * Constructs a Bloom filter closed set which hashes the states by their fingerprints ({@code State.fingerprint}).
+     * @param falsePositiveRate target false positive rate, in (0, 1)
+     * @param memoryBudget number of bytes of the filter
+     */
+    public BloomClosedSet(double falsePositiveRate, long memoryBudget) {
+        this(State::fingerprint, falsePositiveRate, memoryBudget);
+    }
+    
+    /**
+     * Constructs a Bloom filter closed set.
+     * @param hash function which returns a 64-bit hash of a state, well distributed over all its bits
+     * @param falsePositiveRate target false positive rate, in (0, 1)
+     * @param memoryBudget number of bytes of the filter
+     */
+    public BloomClosedSet(ToLongFunction<? super T> hash, double falsePositiveRate, long memoryBudget) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException(String.format("False positive rate %f is not in (0, 1).", falsePositiveRate));
+        
+        long words = memoryBudget / Long.BYTES;
+        if (words <= 0 || words > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(String.format("Memory budget %d is out of range.", memoryBudget));
+        
+        this.hash = hash;
+        this.bits = new long[(int) words];
+        this.bitCount = words * Long.SIZE;
+        
+        //Optimal number of hash functions for the rate, and the number of states it is optimal for.
+        double ln2 = Math.log(2);
+        this.hashCount = Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / ln2));
+        this.expectedSize = (long) (bitCount * ln2 * ln2 / -Math.log(falsePositiveRate));
+    }
+    
+    /**
+     * Constructs a Bloom filter closed set which hashes the packed forms of the states.
+     * @param <T> type of state
+     * @param codec codec of the states, which must have a packed form
+     * @param falsePositiveRate target false positive rate, in (0, 1)
+     * @param memoryBudget number of bytes of the filter
+     * @return a Bloom filter closed set of the states
+     */
+    public static <T extends State> BloomClosedSet<T> of(StateCodec<T> codec, double falsePositiveRate, long memoryBudget) {
+        if (codec.width() <= 0)
+            throw new IllegalArgumentException("Codec must have a packed form!");
+        
+        long[] code = new long[codec.width()];
+        return new BloomClosedSet<>(state -> {
+            codec.encode(state, code, 0);
+            long hash = StateIdentity.SEED;
+            for (long l : code)
+                hash = StateIdentity.combine(hash, l);
+            return StateIdentity.finish(hash);
+        }, falsePositiveRate, memoryBudget);
+    }
+    
+    @Override
+    public boolean add(T state) {
+        long h1 = hash.applyAsLong(state);
+        long h2 = mix(h1) | 1;
+        
+        //Double hashing, i-th position being h1 + i * h2.
+        boolean present = true;
+        long h = h1;
+        for (int i = 0; i < hashCount; i++, h += h2) {
+            long bit = Long.remainderUnsigned(h, bitCount);
+            present &= (bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+        }
+        if (present)
+            return false;
+        
+        /*
+        Each state added at the false positive rate p stands for 1 / (1 - p) new states generated,
+        of which p / (1 - p) are expected to have been missed.
+        */
+        double p = falsePositiveRate();
+        missed += p / (1 - p);
+        
+        h = h1;
+        for (int i = 0; i < hashCount; i++, h += h2) {
+            long bit = Long.remainderUnsigned(h, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        size++;
+        return true;
+    }
+    
+    /**
+     * Returns the number of states added to this set, states which are missed are not counted.
+     * @return number of states in this set
+     */
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    @Override
+    public void clear() {
+        Arrays.fill(bits, 0);
+        size = 0;
+        missed = 0;
+    }
+    
+    /**
+     * Returns the number of states this set can hold at the target false positive rate.
+     * @return expected number of states
+     */
+    public long expectedSize() {
+        return expectedSize;
+    }
+    
+    /**
+     * Returns the current false positive rate, that is the probability that a state which was never added is
+     * reported as present, given the number of states added so far.
+     * @return current false positive rate
+     */
+    public double falsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * size / bitCount), hashCount);
+    }
+    
+    /**
+     * Returns the estimated number of states that were reported as present even though they were never added,
+     * and hence missed by the search.
+     * @return estimated number of missed states
+     */
+    public double estimatedMissedStates() {
+        return missed;
+    }
+    
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
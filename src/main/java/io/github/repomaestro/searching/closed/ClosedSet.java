@@ -0,0 +1,39 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+
+/**
+ * This interface represents a closed set, the set of states that are generated so far during
+ * a search, which is used for preventing a state from being generated more than once.
+ * 
+ * <p>
+ * Implementations need not hold the states themselves, but can hold some identity of them instead,
+ * such as their keys, packed forms or fingerprints.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public interface ClosedSet<T extends State> {
+    /**
+     * Adds a state to this set if it is not already present.
+     * @param state the state to add
+     * @return true if the state was not present in this set
+     */
+    boolean add(T state);
+    
+    /**
+     * Returns the number of states in this set.
+     * @return number of states in this set
+     */
+    long size();
+    
+    /**
+     * Removes all the states from this set.
+     */
+    void clear();
+}
@@ -0,0 +1,210 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+import io.github.repomaestro.searching.StateCodec;
+import io.github.repomaestro.searching.StateIdentity;
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class represents a closed set which holds only a 64-bit or 128-bit fingerprint of each state,
+ * never the state itself, a technique known as hash compaction.
+ * 
+ * <p>
+ * A state takes 8 or 16 bytes (per slot of a primitive open-addressing table) regardless of its size, and is not
+ * kept reachable by the set, so that the states which are no longer in the fringe or on a path can be garbage
+ * collected. Two different states with the same fingerprint are regarded as the same state, thus a state may be
+ * missed; the probability that any state is missed ({@link #omissionProbability()}) is about n<sup>2</sup> / 2<sup>b+1</sup>
+ * for n states and b-bit fingerprints, negligible for 128-bit fingerprints.
+ * </p>
+ * 
+ * <p>
+ * The fingerprints must be well distributed over all their bits, otherwise the states collide far more often than
+ * {@link #omissionProbability()} reports. {@code State.fingerprint} is, unless the state supplies a key
+ * (see {@code State.key}) of a type whose fingerprint is derived from its hash code. Fingerprints computed from the
+ * packed forms of the states ({@link #of(StateCodec, int)}) have no such restriction.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class FingerprintClosedSet<T extends State> implements ClosedSet<T> {
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.5f;
+    
+    private final ToLongFunction<? super T> high;
+    private final ToLongFunction<? super T> low;
+    
+    //Fingerprint of slot i is (highs[i], lows[i]), or only highs[i] for 64-bit fingerprints; all zero marks an empty slot.
+    private long[] highs;
+    private long[] lows;
+    private int mask;
+    private int threshold;
+    
+    private boolean hasZero;
+    private int size;
+    
+    /**
+     * Constructs a closed set of the 64-bit fingerprints of the states ({@code State.fingerprint}).
+     * @param expectedSize expected number of states
+     */
+    public FingerprintClosedSet(int expectedSize) {
+        this(State::fingerprint, null, expectedSize);
+    }
+    
+    /**
+     * Constructs a closed set of 64-bit or 128-bit fingerprints of the states.
+     * @param high function which returns the (high 64 bits of the) fingerprint of a state, well distributed over all its bits
+     * @param low function which returns the low 64 bits of the fingerprint of a state, independent of the high bits;
+     * null for 64-bit fingerprints
+     * @param expectedSize expected number of states
+     */
+    public FingerprintClosedSet(ToLongFunction<? super T> high, ToLongFunction<? super T> low, int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(String.format("Expected size %d is negative.", expectedSize));
+        
+        this.high = high;
+        this.low = low;
+        
+        long slots = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR) + 1;
+        allocate((int) Math.min(MAXIMUM_CAPACITY, Long.highestOneBit(slots - 1) << 1));
+    }
+    
+    /**
+     * Constructs a closed set of the fingerprints of the packed forms of the states.
+     * @param <T> type of state
+     * @param codec codec of the states, which must have a packed form
+     * @param bits number of bits of a fingerprint, 64 or 128
+     * @return a closed set of fingerprints
+     */
+    public static <T extends State> FingerprintClosedSet<T> of(StateCodec<T> codec, int bits) {
+        if (codec.width() <= 0)
+            throw new IllegalArgumentException("Codec must have a packed form!");
+        
+        if (bits != 64 && bits != 128)
+            throw new IllegalArgumentException(String.format("Fingerprints must be 64 or 128 bits, not %d.", bits));
+        
+        //Both halves hash the same packed form, which is encoded once by the high half.
+        long[] code = new long[codec.width()];
+        ToLongFunction<T> high = state -> {
+            codec.encode(state, code, 0);
+            return hash(code, StateIdentity.SEED);
+        };
+        ToLongFunction<T> low = state -> hash(code, ~StateIdentity.SEED);
+        return new FingerprintClosedSet<>(high, bits == 128 ? low : null, 16);
+    }
+    
+    @Override
+    public boolean add(T state) {
+        long h = high.applyAsLong(state);
+        long l = (low == null ? 0 : low.applyAsLong(state));
+        
+        if (h == 0 && l == 0) {
+            if (hasZero)
+                return false;
+            
+            hasZero = true;
+            size++;
+            return true;
+        }
+        
+        int i = slot(h, l);
+        for (; !isEmpty(i); i = (i + 1) & mask)
+            if (highs[i] == h && (lows == null || lows[i] == l))
+                return false;
+        
+        //The table is grown before the fingerprint is stored, so that a full set refuses the state rather than holding it.
+        if (size >= threshold) {
+            grow();
+            i = slot(h, l);
+            while (!isEmpty(i))
+                i = (i + 1) & mask;
+        }
+        
+        highs[i] = h;
+        if (lows != null)
+            lows[i] = l;
+        size++;
+        return true;
+    }
+    
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    @Override
+    public void clear() {
+        Arrays.fill(highs, 0);
+        if (lows != null)
+            Arrays.fill(lows, 0);
+        hasZero = false;
+        size = 0;
+    }
+    
+    /**
+     * Returns the number of bits of a fingerprint.
+     * @return 64 or 128
+     */
+    public int bits() {
+        return low == null ? 64 : 128;
+    }
+    
+    /**
+     * Returns the probability that at least one state is missed so far, because of having the same fingerprint
+     * as another state, assuming the fingerprints are uniformly distributed.
+     * @return probability of an omission
+     */
+    public double omissionProbability() {
+        return Math.min(1, (double) size * size / Math.scalb(1.0, bits() + 1));
+    }
+    
+    private boolean isEmpty(int i) {
+        return highs[i] == 0 && (lows == null || lows[i] == 0);
+    }
+    
+    private void allocate(int capacity) {
+        highs = new long[capacity];
+        lows = (low == null ? null : new long[capacity]);
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+    
+    private void grow() {
+        if (highs.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException(String.format("Closed set is full (%d states).", size));
+        
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        allocate(oldHighs.length << 1);
+        for (int j = 0; j < oldHighs.length; j++) {
+            long h = oldHighs[j];
+            long l = (oldLows == null ? 0 : oldLows[j]);
+            if (h == 0 && l == 0)
+                continue;
+            
+            int i = slot(h, l);
+            while (!isEmpty(i))
+                i = (i + 1) & mask;
+            highs[i] = h;
+            if (lows != null)
+                lows[i] = l;
+        }
+    }
+    
+    //Fingerprints are well distributed, so their bits are used as the slot directly.
+    private int slot(long h, long l) {
+        return (int) (h ^ l) & mask;
+    }
+    
+    private static long hash(long[] code, long seed) {
+        long hash = seed;
+        for (long l : code)
+            hash = StateIdentity.combine(hash, l);
+        return StateIdentity.finish(hash);
+    }
+}
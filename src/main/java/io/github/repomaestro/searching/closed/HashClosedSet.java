@@ -0,0 +1,57 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class represents a closed set which holds an identity object of each state in a {@code HashSet}.
+ * 
+ * <p>
+ * This is the closed set {@code TreeEngine} uses by default, with the keys (see {@code State.key}) of
+ * the states as their identities.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class HashClosedSet<T extends State> implements ClosedSet<T> {
+    private final Function<? super T, ?> identity;
+    private final Set<Object> set = new HashSet<>();
+    
+    /**
+     * Constructs a closed set which identifies the states by their keys.
+     */
+    public HashClosedSet() {
+        this(State::key);
+    }
+    
+    /**
+     * Constructs a closed set which identifies the states by the given function.
+     * @param identity function which returns the identity of a state, two states are the same state
+     * if and only if their identities are equal
+     */
+    public HashClosedSet(Function<? super T, ?> identity) {
+        this.identity = identity;
+    }
+    
+    @Override
+    public boolean add(T state) {
+        return set.add(identity.apply(state));
+    }
+    
+    @Override
+    public long size() {
+        return set.size();
+    }
+    
+    @Override
+    public void clear() {
+        set.clear();
+    }
+}
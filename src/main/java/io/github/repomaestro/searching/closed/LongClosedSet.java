@@ -0,0 +1,206 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+import io.github.repomaestro.searching.StateCodec;
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class represents a closed set which holds a 64-bit key of each state in a primitive
+ * open-addressing hash table, that is a {@code long[]} probed linearly.
+ * 
+ * <p>
+ * Unlike a {@code HashSet}, this set allocates no object per state, it takes 8 bytes per slot.
+ * The table is doubled once the number of keys exceeds the load factor, which can be avoided
+ * by pre-sizing the set with the expected number of states.
+ * </p>
+ * 
+ * <p>
+ * The set is exact if the keys identify the states, such as packed forms of the states which fit
+ * in a single long (see {@link #of(StateCodec)}). If the keys are fingerprints of the states, two different states
+ * with the same fingerprint are regarded as the same state.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class LongClosedSet<T extends State> implements ClosedSet<T> {
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    
+    private final ToLongFunction<? super T> key;
+    private final float loadFactor;
+    
+    private long[] table;
+    private int mask;
+    private int threshold;
+    
+    //Zero marks an empty slot, thus the zero key is kept out of the table.
+    private boolean hasZero;
+    private int size;
+    
+    /**
+     * Constructs a closed set with the default expected size and load factor (0.5).
+     * @param key function which returns the 64-bit key of a state
+     */
+    public LongClosedSet(ToLongFunction<? super T> key) {
+        this(key, 16, 0.5f);
+    }
+    
+    /**
+     * Constructs a closed set which is pre-sized to hold the expected number of states without growing.
+     * @param key function which returns the 64-bit key of a state
+     * @param expectedSize expected number of states
+     * @param loadFactor maximum ratio of the number of keys to the number of slots, in (0, 1)
+     */
+    public LongClosedSet(ToLongFunction<? super T> key, int expectedSize, float loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException(String.format("Load factor %f is not in (0, 1).", loadFactor));
+        
+        if (expectedSize < 0)
+            throw new IllegalArgumentException(String.format("Expected size %d is negative.", expectedSize));
+        
+        this.key = key;
+        this.loadFactor = loadFactor;
+        
+        long slots = (long) Math.ceil(Math.max(expectedSize, 1) / (double) loadFactor) + 1;
+        allocate((int) Math.min(MAXIMUM_CAPACITY, Long.highestOneBit(slots - 1) << 1));
+    }
+    
+    /**
+     * Constructs a closed set which holds the packed forms of the states, with the default expected size and load factor.
+     * @param <T> type of state
+     * @param codec codec of the states whose packed form is a single long
+     * @return an exact closed set of the states
+     */
+    public static <T extends State> LongClosedSet<T> of(StateCodec<T> codec) {
+        return of(codec, 16, 0.5f);
+    }
+    
+    /**
+     * Constructs a closed set which holds the packed forms of the states, pre-sized to hold the expected
+     * number of states without growing.
+     * @param <T> type of state
+     * @param codec codec of the states whose packed form is a single long
+     * @param expectedSize expected number of states
+     * @param loadFactor maximum ratio of the number of keys to the number of slots, in (0, 1)
+     * @return an exact closed set of the states
+     */
+    public static <T extends State> LongClosedSet<T> of(StateCodec<T> codec, int expectedSize, float loadFactor) {
+        if (codec.width() != 1)
+            throw new IllegalArgumentException(String.format("Codec width must be 1, but is %d.", codec.width()));
+        
+        long[] code = new long[1];
+        return new LongClosedSet<>(state -> {
+            codec.encode(state, code, 0);
+            return code[0];
+        }, expectedSize, loadFactor);
+    }
+    
+    @Override
+    public boolean add(T state) {
+        return add(key.applyAsLong(state));
+    }
+    
+    /**
+     * Adds a key to this set if it is not already present.
+     * @param k the key to add
+     * @return true if the key was not present in this set
+     */
+    public boolean add(long k) {
+        if (k == 0) {
+            if (hasZero)
+                return false;
+            
+            hasZero = true;
+            size++;
+            return true;
+        }
+        
+        int i = slot(k);
+        for (long current; (current = table[i]) != 0; i = (i + 1) & mask)
+            if (current == k)
+                return false;
+        
+        //The table is grown before the key is stored, so that a full set refuses the key rather than holding it.
+        if (size >= threshold) {
+            grow();
+            i = slot(k);
+            while (table[i] != 0)
+                i = (i + 1) & mask;
+        }
+        
+        table[i] = k;
+        size++;
+        return true;
+    }
+    
+    /**
+     * Checks whether a key is present in this set.
+     * @param k the key
+     * @return true if the key is present in this set
+     */
+    public boolean contains(long k) {
+        if (k == 0)
+            return hasZero;
+        
+        for (int i = slot(k); table[i] != 0; i = (i + 1) & mask)
+            if (table[i] == k)
+                return true;
+        return false;
+    }
+    
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Returns the number of slots of the table.
+     * @return capacity of this set
+     */
+    public int capacity() {
+        return table.length;
+    }
+    
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        hasZero = false;
+        size = 0;
+    }
+    
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * loadFactor);
+    }
+    
+    private void grow() {
+        if (table.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException(String.format("Closed set is full (%d keys).", size));
+        
+        long[] old = table;
+        allocate(old.length << 1);
+        for (long k : old) {
+            if (k == 0)
+                continue;
+            
+            int i = slot(k);
+            while (table[i] != 0)
+                i = (i + 1) & mask;
+            table[i] = k;
+        }
+    }
+    
+    //Keys may be packed forms with poorly distributed bits, thus they are mixed before being reduced to a slot.
+    private int slot(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        return (int) k & mask;
+    }
+}
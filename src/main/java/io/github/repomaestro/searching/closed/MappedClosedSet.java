@@ -0,0 +1,223 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+import io.github.repomaestro.searching.StateCodec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class represents a closed set which holds the packed forms of the states in a memory-mapped file,
+ * for searches whose state spaces do not fit in the memory even when packed.
+ * 
+ * <p>
+ * The file is split into pages of 4 KiB, and the hash of a state selects the page the state is held in.
+ * A page starts with the number of states it holds, followed by their packed forms. Hence a look-up touches a
+ * single page, unless the page is full and the state overflows to the next page. The file is created sparse
+ * with the size limit as its length, the operating system then keeps the recently touched pages in memory
+ * and writes the others back to the disk. Throughput thus degrades gradually as the set outgrows the memory,
+ * rather than the search failing with an {@code OutOfMemoryError}.
+ * </p>
+ * 
+ * <p>
+ * The file is created in the given directory and is deleted when the set is closed, after which the set cannot
+ * be used. Some platforms (e.g. Windows) do not delete a file while it is mapped, and a mapping is released only
+ * when it is garbage collected, so the file may remain until then. Adding states beyond 90% of the capacity of the
+ * file throws an {@code IllegalStateException}.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class MappedClosedSet<T extends State> implements ClosedSet<T>, Closeable {
+    private static final int PAGE_SIZE = 4096;
+    private static final int PAGE_LONGS = PAGE_SIZE / Long.BYTES;
+    
+    //Pages per mapped region, 1 GiB.
+    private static final int REGION_PAGES = (1 << 30) / PAGE_SIZE;
+    
+    private final StateCodec<? super T> codec;
+    private final ToLongFunction<? super T> key;
+    private final int width;
+    private final int statesPerPage;
+    private final long pages;
+    private final long maximumSize;
+    
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer[] regions;
+    
+    //Bitmap of the pages which have been written to since the last clear.
+    private final long[] touched;
+    
+    private final long[] code;
+    private long size;
+    
+    /**
+     * Constructs an exact closed set of the packed forms of the states.
+     * @param codec codec of the states, which must have a packed form
+     * @param directory directory to create the file of the set in
+     * @param sizeLimit maximum size of the file in bytes
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public MappedClosedSet(StateCodec<? super T> codec, Path directory, long sizeLimit) throws IOException {
+        this(codec, null, codec.width(), directory, sizeLimit);
+    }
+    
+    /**
+     * Constructs a closed set of 64-bit keys of the states.
+     * The set is exact if the keys identify the states, otherwise two states with the same key are regarded as
+     * the same state (e.g. if the keys are fingerprints of the states).
+     * @param key function which returns the 64-bit key of a state
+     * @param directory directory to create the file of the set in
+     * @param sizeLimit maximum size of the file in bytes
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public MappedClosedSet(ToLongFunction<? super T> key, Path directory, long sizeLimit) throws IOException {
+        this(null, key, 1, directory, sizeLimit);
+    }
+    
+    private MappedClosedSet(StateCodec<? super T> codec, ToLongFunction<? super T> key, int width, Path directory, long sizeLimit) throws IOException {
+        if (width <= 0 || width >= PAGE_LONGS)
+            throw new IllegalArgumentException(String.format("Codec width %d is not in [1, %d).", width, PAGE_LONGS));
+        
+        if (sizeLimit < PAGE_SIZE)
+            throw new IllegalArgumentException(String.format("Size limit %d is less than a page (%d bytes).", sizeLimit, PAGE_SIZE));
+        
+        this.codec = codec;
+        this.key = key;
+        this.width = width;
+        this.code = new long[width];
+        this.statesPerPage = (PAGE_LONGS - 1) / width;
+        this.pages = sizeLimit / PAGE_SIZE;
+        this.maximumSize = (long) (pages * statesPerPage * 0.9);
+        this.touched = new long[(int) ((pages + 63) >>> 6)];
+        
+        this.file = Files.createTempFile(directory, "closed", ".set");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(pages * PAGE_SIZE);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        
+        int count = (int) ((pages + REGION_PAGES - 1) / REGION_PAGES);
+        this.regions = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long first = (long) i * REGION_PAGES;
+            long length = Math.min(REGION_PAGES, pages - first) * PAGE_SIZE;
+            regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, first * PAGE_SIZE, length);
+            regions[i].order(ByteOrder.nativeOrder());
+        }
+    }
+    
+    @Override
+    public boolean add(T state) {
+        if (regions == null)
+            throw new IllegalStateException("Closed set is closed.");
+        
+        if (codec != null)
+            codec.encode(state, code, 0);
+        else
+            code[0] = key.applyAsLong(state);
+        
+        for (long page = page(); ; page = (page + 1) % pages) {
+            MappedByteBuffer region = regions[(int) (page / REGION_PAGES)];
+            int base = (int) (page % REGION_PAGES) * PAGE_SIZE;
+            
+            int count = (int) region.getLong(base);
+            for (int i = 0; i < count; i++)
+                if (matches(region, base + (1 + i * width) * Long.BYTES))
+                    return false;
+            
+            if (count < statesPerPage) {
+                if (size == maximumSize)
+                    throw new IllegalStateException(String.format("Closed set is full (%d states).", size));
+                
+                int offset = base + (1 + count * width) * Long.BYTES;
+                for (int i = 0; i < width; i++)
+                    region.putLong(offset + i * Long.BYTES, code[i]);
+                region.putLong(base, count + 1);
+                touched[(int) (page >>> 6)] |= 1L << page;
+                size++;
+                return true;
+            }
+        }
+    }
+    
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Returns the maximum number of states this set can hold.
+     * @return capacity of this set
+     */
+    public long capacity() {
+        return maximumSize;
+    }
+    
+    @Override
+    public void clear() {
+        if (regions == null)
+            throw new IllegalStateException("Closed set is closed.");
+        
+        //Only the pages that hold states are visited, so that the untouched pages are neither faulted in nor written.
+        for (int i = 0; i < touched.length; i++) {
+            for (long bits = touched[i]; bits != 0; bits &= bits - 1) {
+                long page = ((long) i << 6) + Long.numberOfTrailingZeros(bits);
+                regions[(int) (page / REGION_PAGES)].putLong((int) (page % REGION_PAGES) * PAGE_SIZE, 0);
+            }
+            touched[i] = 0;
+        }
+        size = 0;
+    }
+    
+    /**
+     * Closes this set and deletes its file, or leaves the file to be deleted once it is no longer mapped if the
+     * platform does not delete mapped files. Closing an already closed set has no effect.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (regions == null)
+            return;
+        
+        regions = null;
+        channel.close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            //The file is still mapped, it is deleted on close of the channel as soon as the mappings are released.
+        }
+    }
+    
+    private long page() {
+        long hash = 0;
+        for (long l : code) {
+            hash = (hash ^ l) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+        }
+        hash ^= hash >>> 29;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 32;
+        return Long.remainderUnsigned(hash, pages);
+    }
+    
+    private boolean matches(MappedByteBuffer region, int offset) {
+        for (int i = 0; i < width; i++)
+            if (region.getLong(offset + i * Long.BYTES) != code[i])
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+import io.github.repomaestro.searching.StateCodec;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class represents a closed set which holds the packed forms of the states in an open-addressing
+ * hash table outside the Java heap, in direct buffers.
+ * 
+ * <p>
+ * The table is allocated once, for a fixed number of states given at the construction, and never grows;
+ * adding more states than that throws an {@code IllegalStateException}. Since the table is off-heap, it neither
+ * counts towards the heap size nor is scanned by the garbage collector, which makes this set suitable for
+ * searches that reach hundreds of millions of states. The table is split into segments of at most 1 GiB, thus it
+ * is not limited by the maximum size of a single buffer.
+ * </p>
+ * 
+ * <p>
+ * The set must be closed once it is no longer used, after which it cannot be used. Closing drops the references
+ * to the buffers, whose memory is then released when they are garbage collected, hence a set is typically
+ * created per search and given to {@code TreeEngine.pathTo} explicitly:
+ * </p>
+ * 
+ * <pre>
+ * {@code
+        try (OffHeapClosedSet<GameState> closedSet = new OffHeapClosedSet<>(codec, 500_000_000L, 0.75f)) {
+            List<Node<GameState>> path = te.pathTo(evaluator, SearchAlgorithm.BFS, maxDepth, closedSet);
+        }
+ * }
+ * </pre>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class OffHeapClosedSet<T extends State> implements ClosedSet<T>, AutoCloseable {
+    //Number of longs in a segment, 1 GiB.
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    
+    private final StateCodec<? super T> codec;
+    private final ToLongFunction<? super T> key;
+    private final int width;
+    private final long capacity;
+    private final long mask;
+    
+    //Slot i holds its packed form at [i * width, (i + 1) * width) of the keys, and its bit i of the bitmap is set if occupied.
+    private LongBuffer[] keys;
+    private LongBuffer[] occupied;
+    
+    private final long[] code;
+    private long size;
+    
+    /**
+     * Constructs an exact closed set of the packed forms of the states.
+     * @param codec codec of the states, which must have a packed form
+     * @param capacity maximum number of states
+     * @param loadFactor maximum ratio of the number of states to the number of slots, in (0, 1)
+     */
+    public OffHeapClosedSet(StateCodec<? super T> codec, long capacity, float loadFactor) {
+        this(codec, null, codec.width(), capacity, loadFactor);
+    }
+    
+    /**
+     * Constructs a closed set of 64-bit keys of the states.
+     * The set is exact if the keys identify the states, otherwise two states with the same key are regarded as
+     * the same state (e.g. if the keys are fingerprints of the states).
+     * @param key function which returns the 64-bit key of a state
+     * @param capacity maximum number of states
+     * @param loadFactor maximum ratio of the number of states to the number of slots, in (0, 1)
+     */
+    public OffHeapClosedSet(ToLongFunction<? super T> key, long capacity, float loadFactor) {
+        this(null, key, 1, capacity, loadFactor);
+    }
+    
+    private OffHeapClosedSet(StateCodec<? super T> codec, ToLongFunction<? super T> key, int width, long capacity, float loadFactor) {
+        if (width <= 0)
+            throw new IllegalArgumentException("Codec must have a packed form!");
+        
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException(String.format("Load factor %f is not in (0, 1).", loadFactor));
+        
+        if (capacity <= 0)
+            throw new IllegalArgumentException(String.format("Capacity %d is not positive.", capacity));
+        
+        this.codec = codec;
+        this.key = key;
+        this.width = width;
+        this.capacity = capacity;
+        this.code = new long[width];
+        
+        long slots = Math.max(64, Long.highestOneBit((long) Math.ceil(capacity / (double) loadFactor) - 1) << 1);
+        this.mask = slots - 1;
+        this.keys = allocate(Math.multiplyExact(slots, width));
+        this.occupied = allocate(slots / Long.SIZE);
+    }
+    
+    @Override
+    public boolean add(T state) {
+        if (keys == null)
+            throw new IllegalStateException("Closed set is closed.");
+        
+        if (codec != null)
+            codec.encode(state, code, 0);
+        else
+            code[0] = key.applyAsLong(state);
+        
+        long slot = slot();
+        for (; isOccupied(slot); slot = (slot + 1) & mask)
+            if (matches(slot))
+                return false;
+        
+        if (size == capacity)
+            throw new IllegalStateException(String.format("Closed set is full (%d states).", size));
+        
+        long base = slot * width;
+        for (int i = 0; i < width; i++)
+            put(keys, base + i, code[i]);
+        put(occupied, slot >>> 6, get(occupied, slot >>> 6) | (1L << slot));
+        size++;
+        return true;
+    }
+    
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Returns the maximum number of states this set can hold.
+     * @return capacity of this set
+     */
+    public long capacity() {
+        return capacity;
+    }
+    
+    @Override
+    public void clear() {
+        if (occupied == null)
+            throw new IllegalStateException("Closed set is closed.");
+        
+        //Only the bitmap is cleared, stale keys of the empty slots are never read.
+        for (LongBuffer segment : occupied)
+            for (int i = 0; i < segment.capacity(); i++)
+                segment.put(i, 0);
+        size = 0;
+    }
+    
+    /**
+     * Closes this set, dropping the references to its off-heap memory.
+     * Closing an already closed set has no effect.
+     */
+    @Override
+    public void close() {
+        keys = null;
+        occupied = null;
+    }
+    
+    private long slot() {
+        long hash = 0;
+        for (long l : code) {
+            hash = (hash ^ l) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+        }
+        hash ^= hash >>> 29;
+        hash *= 0xbf58476d1ce4e5b9L;
+        hash ^= hash >>> 32;
+        return hash & mask;
+    }
+    
+    private boolean isOccupied(long slot) {
+        return (get(occupied, slot >>> 6) & (1L << slot)) != 0;
+    }
+    
+    private boolean matches(long slot) {
+        long base = slot * width;
+        for (int i = 0; i < width; i++)
+            if (get(keys, base + i) != code[i])
+                return false;
+        return true;
+    }
+    
+    private static LongBuffer[] allocate(long longs) {
+        int count = (int) ((longs + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        LongBuffer[] segments = new LongBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long length = Math.min(SEGMENT_MASK + 1, longs - ((long) i << SEGMENT_SHIFT));
+            segments[i] = ByteBuffer.allocateDirect((int) length * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        return segments;
+    }
+    
+    private static long get(LongBuffer[] segments, long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+    
+    private static void put(LongBuffer[] segments, long index, long value) {
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), value);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.closed;
+
+import io.github.repomaestro.searching.State;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * This class represents a closed set which holds an identity object of each state in an open-addressing
+ * hash table whose slots are stamped with a generation, so that it is cleared in constant time.
+ * 
+ * <p>
+ * A slot is occupied only if its stamp is the current generation, thus {@link #clear()} increments the generation
+ * instead of emptying the table, and keeps the table for the next search. This suits many small searches run one
+ * after another with the same set, such as the searches of a thread which reuses its arena (see {@code NodeStorage}).
+ * Since the identities of the previous generations are overwritten only when their slots are reused, they remain
+ * reachable until then.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class StampedClosedSet<T extends State> implements ClosedSet<T> {
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    
+    private final Function<? super T, ?> identity;
+    
+    private Object[] identities;
+    private int[] stamps;
+    private int mask;
+    private int threshold;
+    
+    //Stamp of the occupied slots, never zero which is the stamp of the slots of a new table.
+    private int generation = 1;
+    private int size;
+    
+    /**
+     * Constructs a closed set which identifies the states by their keys.
+     */
+    public StampedClosedSet() {
+        this(State::key);
+    }
+    
+    /**
+     * Constructs a closed set which identifies the states by the given function.
+     * @param identity function which returns the identity of a state, two states are the same state
+     * if and only if their identities are equal
+     */
+    public StampedClosedSet(Function<? super T, ?> identity) {
+        this.identity = identity;
+        allocate(16);
+    }
+    
+    @Override
+    public boolean add(T state) {
+        return addIdentity(identity.apply(state));
+    }
+    
+    /**
+     * Adds the identity of a state to this set if it is not already present.
+     * @param id identity of the state
+     * @return true if the identity was not present in this set
+     */
+    public boolean addIdentity(Object id) {
+        int i = slot(id.hashCode());
+        for (; stamps[i] == generation; i = (i + 1) & mask)
+            if (identities[i].equals(id))
+                return false;
+        
+        identities[i] = id;
+        stamps[i] = generation;
+        if (++size > threshold)
+            grow();
+        return true;
+    }
+    
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Returns the number of slots of the table.
+     * @return capacity of this set
+     */
+    public int capacity() {
+        return identities.length;
+    }
+    
+    @Override
+    public void clear() {
+        size = 0;
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+    
+    private void allocate(int capacity) {
+        identities = new Object[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity >> 1;
+    }
+    
+    private void grow() {
+        if (identities.length == MAXIMUM_CAPACITY)
+            throw new IllegalStateException(String.format("Closed set is full (%d states).", size));
+        
+        Object[] oldIdentities = identities;
+        int[] oldStamps = stamps;
+        allocate(oldIdentities.length << 1);
+        for (int j = 0; j < oldIdentities.length; j++) {
+            if (oldStamps[j] != generation)
+                continue;
+            
+            int i = slot(oldIdentities[j].hashCode());
+            while (stamps[i] == generation)
+                i = (i + 1) & mask;
+            identities[i] = oldIdentities[j];
+            stamps[i] = generation;
+        }
+    }
+    
+    //Hash codes may have poorly distributed low bits, thus they are mixed before being reduced to a slot.
+    private int slot(int h) {
+        h *= 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * <p>
+ * Contains closed sets, data structures that are used for detecting the duplicate
+ * states during a search.
+ * </p>
+ * 
+ * <p>
+ * An instance of any {@code ClosedSet} sub-type can be given to {@code TreeEngine}
+ * in order to configure how TreeEngine remembers the states generated so far, trading
+ * memory for exactness or speed.
+ * </p>
+ */
+package io.github.repomaestro.searching.closed;
@@ -0,0 +1,122 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import io.github.repomaestro.searching.*;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a fringe which pops the node of the least cost first, as a bucket queue
+ * (Dial's algorithm) over a circular array of buckets, one bucket per cost.
+ * 
+ * <p>
+ * As long as the costs of the nodes in the fringe span a small range, such as for the uniform cost search with small
+ * integer move costs where the range is at most the largest move cost, pushing a node is O(1) and popping one is
+ * amortized O(1), rather than O(log n) of a binary heap. The array of buckets is doubled whenever the range of the
+ * costs outgrows it. Nodes of equal cost are popped in last-in first-out order.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class BucketFringe<T extends State> implements Fringe<T> {
+    private Node<T>[][] buckets;
+    private int[] counts;
+    private int mask;
+    
+    //Costs of the nodes in the fringe are in [minimum, maximum], the bucket of cost c is (c & mask).
+    private int minimum;
+    private int maximum;
+    private int size;
+    
+    /**
+     * Constructs a bucket fringe with 16 buckets.
+     */
+    public BucketFringe() {
+        this(16);
+    }
+    
+    /**
+     * Constructs a bucket fringe with enough buckets for the given range of the costs.
+     * @param range expected difference between the largest and the least cost in the fringe
+     */
+    public BucketFringe(int range) {
+        if (range < 0)
+            throw new IllegalArgumentException(String.format("Range %d is negative.", range));
+        
+        allocate(Integer.highestOneBit(Math.max(range, 1)) << 1);
+    }
+    
+    @Override
+    public void push(Node<T> node) {
+        int cost = node.getCost();
+        if (size == 0) {
+            minimum = cost;
+            maximum = cost;
+        } else {
+            int low = Math.min(minimum, cost);
+            int high = Math.max(maximum, cost);
+            if ((long) high - low >= buckets.length)
+                grow((long) high - low);
+            minimum = low;
+            maximum = high;
+        }
+        
+        int i = cost & mask;
+        if (counts[i] == buckets[i].length)
+            buckets[i] = Arrays.copyOf(buckets[i], counts[i] << 1);
+        buckets[i][counts[i]++] = node;
+        size++;
+    }
+    
+    @Override
+    public Node<T> pop() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        
+        //Scan from the least cost to the first non-empty bucket, the scanned costs are never pushed again for monotone costs.
+        while (counts[minimum & mask] == 0)
+            minimum++;
+        
+        int i = minimum & mask;
+        Node<T> node = buckets[i][--counts[i]];
+        buckets[i][counts[i]] = null;
+        size--;
+        return node;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        buckets = (Node<T>[][]) new Node<?>[length][];
+        for (int i = 0; i < length; i++)
+            buckets[i] = (Node<T>[]) new Node<?>[4];
+        counts = new int[length];
+        mask = length - 1;
+    }
+    
+    private void grow(long range) {
+        if (range >= 1 << 30)
+            throw new IllegalStateException(String.format("Range of the costs (%d) is too large for a bucket fringe.", range));
+        
+        Node<T>[][] oldBuckets = buckets;
+        int[] oldCounts = counts;
+        allocate(Integer.highestOneBit((int) range) << 1);
+        for (int j = 0; j < oldBuckets.length; j++) {
+            for (int k = 0; k < oldCounts[j]; k++) {
+                Node<T> node = oldBuckets[j][k];
+                int i = node.getCost() & mask;
+                if (counts[i] == buckets[i].length)
+                    buckets[i] = Arrays.copyOf(buckets[i], counts[i] << 1);
+                buckets[i][counts[i]++] = node;
+            }
+        }
+    }
+}
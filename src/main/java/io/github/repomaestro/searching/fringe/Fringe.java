@@ -0,0 +1,115 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import io.github.repomaestro.searching.*;
+import io.github.repomaestro.searching.algorithm.*;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This interface represents a "search fringe", the data structure which holds the nodes that are generated
+ * but not yet expanded.
+ * 
+ * <p>
+ * The order in which the nodes are popped from the fringe determines the search strategy, thus each search algorithm
+ * has its own implementation, which is chosen once per search by {@link #of(Algorithm, List)}. Custom implementations
+ * can be given to {@code TreeEngine.fringes} in order to plug in other frontier structures.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public interface Fringe<T extends State> {
+    /**
+     * Pushes a node to this fringe.
+     * @param node the node to push
+     */
+    void push(Node<T> node);
+    
+    /**
+     * Pops the next node to expand from this fringe.
+     * @return the next node to expand
+     * @throws java.util.NoSuchElementException if this fringe is empty
+     */
+    Node<T> pop();
+    
+    /**
+     * Checks whether this fringe is empty.
+     * @return true if this fringe has no nodes
+     */
+    boolean isEmpty();
+    
+    /**
+     * Largest move cost for which the uniform cost search uses a {@link BucketFringe}.
+     */
+    int MAXIMUM_BUCKET_COST = 1024;
+    
+    /**
+     * Returns the fringe of the given search algorithm for a problem with the given moves.
+     * 
+     * <p>
+     * This method behaves the same way as {@link #of(Algorithm)}, except that the uniform cost search
+     * uses a {@link BucketFringe} if the costs of the moves are non-negative integers up to {@link #MAXIMUM_BUCKET_COST},
+     * since the costs in its fringe then span at most the largest move cost.
+     * </p>
+     * @param <T> type of state
+     * @param A the search algorithm
+     * @param moves moves of the problem
+     * @return a new, empty fringe for the algorithm
+     * @throws IllegalArgumentException if the algorithm has no fringe
+     */
+    static <T extends State> Fringe<T> of(Algorithm A, List<Move<T>> moves) {
+        if (A == SearchAlgorithm.UCS) {
+            int maximumCost = 0;
+            for (Move<T> move : moves) {
+                if (move.cost() < 0 || move.cost() > MAXIMUM_BUCKET_COST)
+                    return of(A);
+                maximumCost = Math.max(maximumCost, move.cost());
+            }
+            return new BucketFringe<>(maximumCost);
+        }
+        return of(A);
+    }
+    
+    /**
+     * Returns the fringe of the given search algorithm for a problem with the given moves, breaking the ties
+     * of the best-first searches by the given comparator.
+     * 
+     * <p>
+     * This method behaves the same way as {@link #of(Algorithm, List)}, except that the uniform cost, greedy and
+     * A* searches use a {@link PriorityFringe} with the given comparator if it is not null.
+     * </p>
+     * @param <T> type of state
+     * @param A the search algorithm
+     * @param moves moves of the problem
+     * @param ties comparator of the nodes of equal cost (see {@link TieBreaking}), null for the default order
+     * @return a new, empty fringe for the algorithm
+     * @throws IllegalArgumentException if the algorithm has no fringe
+     */
+    static <T extends State> Fringe<T> of(Algorithm A, List<Move<T>> moves, Comparator<? super Node<T>> ties) {
+        if (ties != null && (A == SearchAlgorithm.UCS || A == HeuristicAlgorithm.A_STAR || A == HeuristicAlgorithm.GS))
+            return new PriorityFringe<>(ties);
+        return of(A, moves);
+    }
+    
+    /**
+     * Returns the fringe of the given search algorithm.
+     * @param <T> type of state
+     * @param A the search algorithm
+     * @return a new, empty fringe for the algorithm
+     * @throws IllegalArgumentException if the algorithm has no fringe
+     */
+    static <T extends State> Fringe<T> of(Algorithm A) {
+        if (A == SearchAlgorithm.DFS || A == SearchAlgorithm.IDS)
+            return new StackFringe<>();
+        else if (A == SearchAlgorithm.BFS)
+            return new QueueFringe<>();
+        else if (A == SearchAlgorithm.UCS || A == HeuristicAlgorithm.A_STAR || A == HeuristicAlgorithm.GS)
+            return new PriorityFringe<>();
+        else
+            throw new IllegalArgumentException(String.format("Algorithm \"%s\" has no fringe.", A));
+    }
+}
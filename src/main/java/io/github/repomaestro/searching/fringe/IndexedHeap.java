@@ -0,0 +1,218 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * This class represents an indexed 4-ary min-heap of integer handles, ordered by their long priorities,
+ * which supports changing the priority of a handle in the heap.
+ * 
+ * <p>
+ * A handle is a non-negative integer which identifies an element (such as a state) outside the heap. The heap keeps
+ * the position of each handle, so that {@link #decreaseKey(int, long)} moves the handle in place in O(log n) time,
+ * instead of pushing it once more and leaving the stale entry in the heap. A 4-ary heap is shallower than a binary
+ * heap, and its children are adjacent in memory.
+ * </p>
+ * 
+ * <p>
+ * The ties among the handles of equal priority are broken by an optional comparator of the handles.
+ * </p>
+ * 
+ * @author repomaestro
+ */
+public final class IndexedHeap {
+    private static final int ARITY = 4;
+    
+    private int[] heap = new int[16];
+    private int size;
+    
+    //Position of each handle in the heap, -1 if absent, and its priority.
+    private int[] positions = new int[16];
+    private long[] priorities = new long[16];
+    
+    //Comparator of the handles of equal priority, null if the ties are broken arbitrarily.
+    private final IntBinaryOperator ties;
+    
+    /**
+     * Constructs an empty heap.
+     */
+    public IndexedHeap() {
+        this(null);
+    }
+    
+    /**
+     * Constructs an empty heap which breaks the ties by the given comparator of the handles.
+     * @param ties comparator of two handles of equal priority, returning a negative integer if the first one
+     * is to be popped first, null to break the ties arbitrarily
+     */
+    public IndexedHeap(IntBinaryOperator ties) {
+        this.ties = ties;
+        Arrays.fill(positions, -1);
+    }
+    
+    /**
+     * Pushes a handle which is not in the heap.
+     * @param handle the handle
+     * @param priority priority of the handle
+     * @throws IllegalArgumentException if the handle is already in the heap
+     */
+    public void push(int handle, long priority) {
+        if (handle >= positions.length) {
+            int length = Math.max(handle + 1, positions.length << 1);
+            int old = positions.length;
+            positions = Arrays.copyOf(positions, length);
+            Arrays.fill(positions, old, length, -1);
+            priorities = Arrays.copyOf(priorities, length);
+        }
+        
+        if (positions[handle] >= 0)
+            throw new IllegalArgumentException(String.format("Handle %d is already in the heap.", handle));
+        
+        if (size == heap.length)
+            heap = Arrays.copyOf(heap, size << 1);
+        
+        priorities[handle] = priority;
+        heap[size] = handle;
+        positions[handle] = size;
+        up(size++);
+    }
+    
+    /**
+     * Decreases the priority of a handle in the heap.
+     * @param handle the handle
+     * @param priority new priority of the handle, not greater than its current priority
+     * @throws IllegalArgumentException if the handle is not in the heap or the priority is greater than the current one
+     */
+    public void decreaseKey(int handle, long priority) {
+        if (!contains(handle))
+            throw new IllegalArgumentException(String.format("Handle %d is not in the heap.", handle));
+        
+        if (priority > priorities[handle])
+            throw new IllegalArgumentException(String.format("Priority %d is greater than the current priority %d.", priority, priorities[handle]));
+        
+        priorities[handle] = priority;
+        up(positions[handle]);
+    }
+    
+    /**
+     * Pops the handle of the least priority.
+     * @return the handle of the least priority
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int pop() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        
+        int top = heap[0];
+        positions[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            down(0);
+        }
+        return top;
+    }
+    
+    /**
+     * Returns the handle of the least priority without removing it.
+     * @return the handle of the least priority
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        
+        return heap[0];
+    }
+    
+    /**
+     * Checks whether a handle is in the heap.
+     * @param handle the handle
+     * @return true if the handle is in the heap
+     */
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < positions.length && positions[handle] >= 0;
+    }
+    
+    /**
+     * Returns the priority of a handle, which is the last priority it had if it is no longer in the heap.
+     * @param handle the handle
+     * @return priority of the handle
+     */
+    public long priority(int handle) {
+        return priorities[handle];
+    }
+    
+    /**
+     * Removes all the handles, keeping the arrays for reuse.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+    
+    /**
+     * Checks whether the heap is empty.
+     * @return true if the heap has no handles
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Returns the number of handles in the heap.
+     * @return number of handles in the heap
+     */
+    public int size() {
+        return size;
+    }
+    
+    private boolean less(int a, int b) {
+        int difference = Long.compare(priorities[a], priorities[b]);
+        return difference < 0 || (difference == 0 && ties != null && ties.applyAsInt(a, b) < 0);
+    }
+    
+    private void up(int i) {
+        int handle = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            if (!less(handle, heap[parent]))
+                break;
+            
+            heap[i] = heap[parent];
+            positions[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = handle;
+        positions[handle] = i;
+    }
+    
+    private void down(int i) {
+        int handle = heap[i];
+        while (true) {
+            int first = i * ARITY + 1;
+            if (first >= size)
+                break;
+            
+            int least = first;
+            for (int child = first + 1; child < Math.min(first + ARITY, size); child++)
+                if (less(heap[child], heap[least]))
+                    least = child;
+            
+            if (!less(heap[least], handle))
+                break;
+            
+            heap[i] = heap[least];
+            positions[heap[i]] = i;
+            i = least;
+        }
+        heap[i] = handle;
+        positions[handle] = i;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import io.github.repomaestro.searching.*;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * This class represents a fringe which pops the node of the least cost first, the fringe of the
+ * uniform cost and the best first (heuristic) searches.
+ * 
+ * <p>
+ * The ties among the nodes of equal cost are popped in no particular order, unless a comparator is given
+ * (see {@link TieBreaking}), which breaks them and then the nodes still tied last-in first-out.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class PriorityFringe<T extends State> implements Fringe<T> {
+    //A node and the number of the nodes pushed before it.
+    private record Entry<T extends State>(Node<T> node, long sequence) {}
+    
+    //Exactly one of the queues is used, the queue of the entries only if the ties are broken.
+    private final PriorityQueue<Node<T>> nodes;
+    private final PriorityQueue<Entry<T>> entries;
+    private long sequence;
+    
+    /**
+     * Constructs a fringe which pops the nodes of equal cost in no particular order.
+     */
+    public PriorityFringe() {
+        this.nodes = new PriorityQueue<>();
+        this.entries = null;
+    }
+    
+    /**
+     * Constructs a fringe which breaks the ties by the given comparator, and then last-in first-out.
+     * @param ties comparator of the nodes of equal cost, ordering the preferred node first
+     */
+    public PriorityFringe(Comparator<? super Node<T>> ties) {
+        Comparator<Entry<T>> order = Comparator.comparingInt(entry -> entry.node().getCost());
+        this.nodes = null;
+        this.entries = new PriorityQueue<>(order
+                .thenComparing(Entry::node, ties)
+                .thenComparing(Comparator.comparingLong((Entry<T> entry) -> entry.sequence()).reversed()));
+    }
+    
+    @Override
+    public void push(Node<T> node) {
+        if (nodes != null)
+            nodes.add(node);
+        else
+            entries.add(new Entry<>(node, sequence++));
+    }
+    
+    @Override
+    public Node<T> pop() {
+        return (nodes != null ? nodes.remove() : entries.remove().node());
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return (nodes != null ? nodes.isEmpty() : entries.isEmpty());
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import io.github.repomaestro.searching.*;
+import java.util.ArrayDeque;
+
+/**
+ * This class represents a first-in first-out fringe, the fringe of the breadth first search.
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class QueueFringe<T extends State> implements Fringe<T> {
+    private final ArrayDeque<Node<T>> queue = new ArrayDeque<>();
+    
+    @Override
+    public void push(Node<T> node) {
+        queue.add(node);
+    }
+    
+    @Override
+    public Node<T> pop() {
+        return queue.remove();
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+}
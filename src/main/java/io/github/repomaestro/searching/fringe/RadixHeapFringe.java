@@ -0,0 +1,120 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import io.github.repomaestro.searching.*;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a fringe which pops the node of the least cost first, as a radix heap.
+ * 
+ * <p>
+ * A radix heap requires the costs to be monotone, that is no node is pushed with a cost less than the cost of
+ * the last popped node, which holds for the uniform cost search and for the A* search with a consistent heuristic.
+ * Nodes are kept in 33 buckets by the highest bit in which their cost differs from the last popped cost, and are
+ * moved to lower buckets at most 32 times in total, thus the operations take amortized O(log C) time for costs up to C,
+ * independent of the number of nodes, which makes it faster than a binary heap on large fringes.
+ * </p>
+ * 
+ * <p>
+ * It can be selected for such searches with {@code TreeEngine.fringes}, for example
+ * {@code te.fringes(A -> A == HeuristicAlgorithm.A_STAR ? new RadixHeapFringe<>() : Fringe.of(A))}.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class RadixHeapFringe<T extends State> implements Fringe<T> {
+    @SuppressWarnings("unchecked")
+    private final Node<T>[][] buckets = (Node<T>[][]) new Node<?>[Integer.SIZE + 1][];
+    private final int[] counts = new int[Integer.SIZE + 1];
+    
+    //Last popped cost, mapped to unsigned order (costs are compared by key(cost) as unsigned integers).
+    private int last = key(Integer.MIN_VALUE);
+    private int size;
+    
+    /**
+     * Constructs an empty radix heap fringe.
+     */
+    public RadixHeapFringe() {
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = newBucket(4);
+    }
+    
+    /**
+     * Pushes a node to this fringe.
+     * @param node the node to push
+     * @throws IllegalArgumentException if the cost of the node is less than the cost of the last popped node
+     */
+    @Override
+    public void push(Node<T> node) {
+        int k = key(node.getCost());
+        if (Integer.compareUnsigned(k, last) < 0)
+            throw new IllegalArgumentException(String.format(
+                    "Cost %d is less than the last popped cost %d, costs of a radix heap must be monotone.",
+                    node.getCost(), last ^ Integer.MIN_VALUE));
+        
+        add(bucket(k), node);
+        size++;
+    }
+    
+    @Override
+    public Node<T> pop() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        
+        if (counts[0] == 0) {
+            //The least cost is in the first non-empty bucket, which is redistributed relative to it.
+            int i = 1;
+            while (counts[i] == 0)
+                i++;
+            
+            Node<T>[] nodes = buckets[i];
+            int count = counts[i];
+            int least = key(nodes[0].getCost());
+            for (int j = 1; j < count; j++)
+                if (Integer.compareUnsigned(key(nodes[j].getCost()), least) < 0)
+                    least = key(nodes[j].getCost());
+            
+            last = least;
+            buckets[i] = newBucket(Math.max(4, count >>> 1));
+            counts[i] = 0;
+            for (int j = 0; j < count; j++)
+                add(bucket(key(nodes[j].getCost())), nodes[j]);
+        }
+        
+        Node<T> node = buckets[0][--counts[0]];
+        buckets[0][counts[0]] = null;
+        size--;
+        return node;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    private void add(int i, Node<T> node) {
+        if (counts[i] == buckets[i].length)
+            buckets[i] = Arrays.copyOf(buckets[i], counts[i] << 1);
+        buckets[i][counts[i]++] = node;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Node<T>[] newBucket(int length) {
+        return (Node<T>[]) new Node<?>[length];
+    }
+    
+    //Bucket of a key is the position of the highest bit in which it differs from the last popped key, 0 if equal.
+    private int bucket(int k) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(k ^ last);
+    }
+    
+    //Maps a cost to a key whose unsigned order is the signed order of the costs.
+    private static int key(int cost) {
+        return cost ^ Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import io.github.repomaestro.searching.*;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a last-in first-out fringe, the fringe of the depth first searches.
+ * 
+ * <p>
+ * The fringe is an unsynchronized stack backed by a growable array, since a search is confined to a single thread.
+ * </p>
+ * 
+ * @param <T> type of state, must be a sub-type of {@link State}
+ * @author repomaestro
+ */
+public final class StackFringe<T extends State> implements Fringe<T> {
+    @SuppressWarnings("unchecked")
+    private Node<T>[] stack = (Node<T>[]) new Node<?>[64];
+    private int size;
+    
+    @Override
+    public void push(Node<T> node) {
+        if (size == stack.length)
+            stack = Arrays.copyOf(stack, size << 1);
+        stack[size++] = node;
+    }
+    
+    @Override
+    public Node<T> pop() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        
+        //The popped slot is cleared so that the stack does not keep the node reachable.
+        Node<T> node = stack[--size];
+        stack[size] = null;
+        return node;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.fringe;
+
+import io.github.repomaestro.searching.*;
+import java.util.Comparator;
+
+/**
+ * This enum represents the policies which break the ties among the nodes of equal cost in the best-first fringes.
+ * 
+ * <p>
+ * A policy is given to the fringes as its {@link #comparator()}, which can be replaced by any other comparator
+ * of nodes. The nodes which are still tied after the comparator are popped last-in first-out.
+ * For the A* search (cost {@code f = g + h}), preferring the higher path cost among equal costs is the same as
+ * preferring the lower heuristic.
+ * </p>
+ * 
+ * @author repomaestro
+ */
+public enum TieBreaking {
+    //Prefers the node of the higher path cost (g), which is usually the node closer to the goal
+    HIGHER_G,
+    //Prefers the node pushed last
+    LIFO;
+    
+    /**
+     * Returns the comparator of this policy, which orders the preferred one of two nodes of equal cost first.
+     * The same comparator is returned on every call.
+     * @param <T> type of state
+     * @return the comparator of this policy
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends State> Comparator<Node<T>> comparator() {
+        switch (this) {
+            case HIGHER_G:
+                return (Comparator<Node<T>>) (Comparator<?>) HIGHER_G_ORDER;
+            default:
+                return (Comparator<Node<T>>) (Comparator<?>) LIFO_ORDER;
+        }
+    }
+    
+    //The comparators are shared, so that the searches can recognize the policies and compare without the nodes.
+    private static final Comparator<Node<?>> HIGHER_G_ORDER = (a, b) -> Integer.compare(b.getPathCost(), a.getPathCost());
+    private static final Comparator<Node<?>> LIFO_ORDER = (a, b) -> 0;
+}
@@ -0,0 +1,14 @@
+/**
+ * <p>
+ * Contains fringes, data structures that hold the nodes generated but not yet
+ * expanded during a search, whose order of removal determines the search strategy.
+ * </p>
+ * 
+ * <p>
+ * {@code TreeEngine} chooses a fringe per search with {@code Fringe.of}, based on the
+ * {@code Algorithm} given to {@code TreeEngine.pathTo} and the costs of the moves. Other fringes, including custom
+ * implementations of {@code Fringe}, can be configured with {@code TreeEngine.fringes}, and the ties among the nodes
+ * of equal cost in the best-first fringes with {@code TreeEngine.tieBreaking} (see {@code TieBreaking}).
+ * </p>
+ */
+package io.github.repomaestro.searching.fringe;
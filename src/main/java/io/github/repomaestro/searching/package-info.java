@@ -42,11 +42,14 @@
  * (such as dimensions of a 2D problem).<br> 
  * If the state contains data types which are object references (e.g array), then you can also
  * implement {@code Object.equals} and {@code Object.hashCode}, but this is not a necessity.<br>
+ * Preferably, override {@code State.key} to return a compact identity key of the state (for example
+ * {@code List.of(x, y)}), which is then used for both equality and hashing. Alternatively, annotate a top-level
+ * or static nested state class with {@code SearchState} to have its equality, hashing and codec generated at compile time.<br>
  * 
  * <p>
  * <i>
  * <b>Notes:</b><br> 
- * - If the defined class does not override {@code Object.equals} and {@code Object.hashCode}, then
+ * - If the defined class does not override {@code State.key}, {@code Object.equals} and {@code Object.hashCode}, then
  * default implementations defined in {@code State} class are used, which should work for any general 
  * sub-class but a little less performant than a custom implementation.<br>
  * - Defined class which represents the state MUST have instance fields that are {@code Serializable}. This
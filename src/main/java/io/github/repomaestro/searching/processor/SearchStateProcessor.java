@@ -0,0 +1,415 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package io.github.repomaestro.searching.processor;
+
+import io.github.repomaestro.searching.*;
+import java.io.*;
+import java.util.*;
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * This class is the annotation processor which generates a {@link StateIdentity} for each class
+ * annotated with {@link SearchState}.
+ * 
+ * <p>
+ * The generated class compares and fingerprints the instance fields declared by the annotated class
+ * directly, without serializing the state.
+ * </p>
+ * 
+ * <p>
+ * If all the fields are of primitive and enum types, and the annotated class has a constructor whose parameters are
+ * the fields in the order of declaration, the generated class is a {@link StateCodec} of the state as well. Its packed
+ * form packs the fields bit-wise into longs, and its binary form consists of only the values of the fields.
+ * The states with fields of other types (e.g. arrays and strings) have no fixed-width packed form, hence only their
+ * identity is generated.
+ * </p>
+ * 
+ * @author repomaestro
+ */
+@SupportedAnnotationTypes("io.github.repomaestro.searching.SearchState")
+public class SearchStateProcessor extends AbstractProcessor {
+    /**
+     * Suffix of the name of the generated classes.
+     */
+    public static final String SUFFIX = "_SearchState";
+    
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+    
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (Element element : round.getElementsAnnotatedWith(SearchState.class)) {
+            TypeElement type = (TypeElement) element;
+            if (!validate(type))
+                continue;
+            
+            try {
+                generate(type);
+            } catch (IOException e) {
+                error(type, "Identity of %s cannot be generated: %s", type.getQualifiedName(), e.getMessage());
+            }
+        }
+        return true;
+    }
+    
+    private boolean validate(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            error(type, "@SearchState can only be applied to classes.");
+            return false;
+        }
+        
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL 
+                && !(type.getNestingKind() == NestingKind.MEMBER && type.getModifiers().contains(Modifier.STATIC))) {
+            error(type, "@SearchState class %s must be a top-level or static nested class.", type.getSimpleName());
+            return false;
+        }
+        
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@SearchState class %s must not be generic.", type.getSimpleName());
+            return false;
+        }
+        
+        TypeElement state = processingEnv.getElementUtils().getTypeElement(State.class.getCanonicalName());
+        if (!processingEnv.getTypeUtils().isSameType(type.getSuperclass(), state.asType())) {
+            error(type, "@SearchState class %s must directly extend %s.", type.getSimpleName(), State.class.getName());
+            return false;
+        }
+        
+        boolean valid = true;
+        for (VariableElement field : fields(type)) {
+            if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                error(field, "Field %s of @SearchState class %s must not be private.", field.getSimpleName(), type.getSimpleName());
+                valid = false;
+            }
+        }
+        return valid;
+    }
+    
+    //Instance fields that make up the identity of a state, transient fields are not a part of it.
+    private List<VariableElement> fields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT))
+                fields.add(field);
+        }
+        return fields;
+    }
+    
+    private void generate(TypeElement type) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getQualifiedName().toString();
+        
+        String simpleName = type.getSimpleName().toString();
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement())
+            simpleName = e.getSimpleName() + "_" + simpleName;
+        String className = simpleName + SUFFIX;
+        
+        List<VariableElement> fields = fields(type);
+        String unsupported = codecUnsupported(type, fields);
+        
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty())
+            src.append("package ").append(packageName).append(";\n\n");
+        
+        src.append("@javax.annotation.processing.Generated(\"").append(SearchStateProcessor.class.getName()).append("\")\n");
+        src.append("public final class ").append(className)
+                .append(" implements io.github.repomaestro.searching.StateIdentity<").append(typeName).append(">");
+        if (unsupported == null)
+            src.append(", io.github.repomaestro.searching.StateCodec<").append(typeName).append(">");
+        src.append(" {\n");
+        
+        //Equality.
+        src.append("    @Override\n");
+        src.append("    public boolean equal(").append(typeName).append(" a, ").append(typeName).append(" b) {\n");
+        src.append("        return true");
+        for (VariableElement field : fields)
+            src.append("\n            && ").append(equality(field));
+        src.append(";\n    }\n\n");
+        
+        //Fingerprint.
+        src.append("    @Override\n");
+        src.append("    public long fingerprint(").append(typeName).append(" state) {\n");
+        src.append("        long hash = SEED;\n");
+        for (VariableElement field : fields)
+            src.append("        hash = io.github.repomaestro.searching.StateIdentity.combine(hash, ").append(hashValue(field)).append(");\n");
+        src.append("        return io.github.repomaestro.searching.StateIdentity.finish(hash);\n");
+        src.append("    }\n");
+        
+        //Codec.
+        if (unsupported == null) {
+            List<int[]> layout = pack(fields);
+            int width = 0;
+            for (int[] slot : layout)
+                width = Math.max(width, slot[0] + 1);
+            
+            src.append("\n");
+            src.append("    @Override\n");
+            src.append("    public int width() {\n");
+            src.append("        return ").append(width).append(";\n");
+            src.append("    }\n\n");
+            
+            src.append("    @Override\n");
+            src.append("    public void encode(").append(typeName).append(" state, long[] target, int offset) {\n");
+            for (int word = 0; word < width; word++) {
+                List<String> terms = new ArrayList<>();
+                for (int i = 0; i < fields.size(); i++)
+                    if (layout.get(i)[0] == word)
+                        terms.add(packed(fields.get(i), layout.get(i)[1]));
+                src.append("        target[offset + ").append(word).append("] = ").append(String.join("\n                | ", terms)).append(";\n");
+            }
+            src.append("    }\n\n");
+            
+            src.append("    @Override\n");
+            src.append("    public ").append(typeName).append(" decode(long[] source, int offset) {\n");
+            List<String> decoded = new ArrayList<>();
+            for (int i = 0; i < fields.size(); i++)
+                decoded.add(unpacked(fields.get(i), "source[offset + " + layout.get(i)[0] + "]", layout.get(i)[1]));
+            src.append("        return new ").append(typeName).append("(\n                ")
+                    .append(String.join(",\n                ", decoded)).append(");\n");
+            src.append("    }\n\n");
+            
+            src.append("    @Override\n");
+            src.append("    public void write(").append(typeName).append(" state, java.io.DataOutput out) throws java.io.IOException {\n");
+            for (VariableElement field : fields)
+                write(src, field);
+            src.append("    }\n\n");
+            
+            src.append("    @Override\n");
+            src.append("    public ").append(typeName).append(" read(java.io.DataInput in) throws java.io.IOException {\n");
+            List<String> arguments = new ArrayList<>();
+            for (int i = 0; i < fields.size(); i++) {
+                read(src, fields.get(i), "f" + i);
+                arguments.add("f" + i);
+            }
+            src.append("        return new ").append(typeName).append("(").append(String.join(", ", arguments)).append(");\n");
+            src.append("    }\n");
+        }
+        src.append("}\n");
+        
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(src.toString());
+        }
+    }
+    
+    private String equality(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+            case FLOAT:
+                return String.format("Float.floatToIntBits(a.%1$s) == Float.floatToIntBits(b.%1$s)", name);
+            case DOUBLE:
+                return String.format("Double.doubleToLongBits(a.%1$s) == Double.doubleToLongBits(b.%1$s)", name);
+            case ARRAY:
+                return String.format("java.util.Arrays.%2$s(a.%1$s, b.%1$s)", name, 
+                        isPrimitiveArray(type) ? "equals" : "deepEquals");
+            default:
+                if (type.getKind().isPrimitive())
+                    return String.format("a.%1$s == b.%1$s", name);
+                return String.format("java.util.Objects.equals(a.%1$s, b.%1$s)", name);
+        }
+    }
+    
+    private String hashValue(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return String.format("state.%s ? 1L : 0L", name);
+            case FLOAT:
+                return String.format("Float.floatToIntBits(state.%s)", name);
+            case DOUBLE:
+                return String.format("Double.doubleToLongBits(state.%s)", name);
+            case ARRAY:
+                return String.format("java.util.Arrays.%2$s(state.%1$s)", name, 
+                        isPrimitiveArray(type) ? "hashCode" : "deepHashCode");
+            default:
+                //Ordinals of enum constants are stable across runs, unlike their hash codes.
+                if (isEnum(type))
+                    return String.format("state.%1$s == null ? -1 : state.%1$s.ordinal()", name);
+                return "state." + name;
+        }
+    }
+    
+    //Returns why the codec cannot be generated for the type, null if it can be.
+    private String codecUnsupported(TypeElement type, List<VariableElement> fields) {
+        for (VariableElement field : fields) {
+            TypeMirror fieldType = field.asType();
+            if (!(fieldType.getKind().isPrimitive() || isEnum(fieldType)))
+                return String.format("Field %s of type %s has no fixed size in the packed form.", field.getSimpleName(), fieldType);
+        }
+        
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (constructor.getModifiers().contains(Modifier.PRIVATE) || parameters.size() != fields.size())
+                continue;
+            
+            boolean matches = true;
+            for (int i = 0; i < fields.size(); i++)
+                matches &= processingEnv.getTypeUtils().isSameType(parameters.get(i).asType(), fields.get(i).asType());
+            if (matches)
+                return null;
+        }
+        return String.format("%s has no non-private constructor whose parameters are its fields.", type.getSimpleName());
+    }
+    
+    /*
+    Assigns each field a (word, shift) slot in the packed form, first word having enough free bits being chosen.
+    A field never spans two words. The fields are of primitive and enum types, which have fixed sizes.
+    */
+    private List<int[]> pack(List<VariableElement> fields) {
+        List<int[]> layout = new ArrayList<>();
+        List<Integer> used = new ArrayList<>();
+        for (VariableElement field : fields) {
+            int bits = bits(field.asType());
+            int word = 0;
+            while (word < used.size() && used.get(word) + bits > Long.SIZE)
+                word++;
+            if (word == used.size())
+                used.add(0);
+            
+            layout.add(new int[] {word, used.get(word)});
+            used.set(word, used.get(word) + bits);
+        }
+        return layout;
+    }
+    
+    //Number of bits of a field of a primitive or enum type in the packed form.
+    private int bits(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return 1;
+            case BYTE:
+                return Byte.SIZE;
+            case SHORT:
+            case CHAR:
+                return Short.SIZE;
+            case INT:
+            case FLOAT:
+                return Integer.SIZE;
+            case LONG:
+            case DOUBLE:
+                return Long.SIZE;
+            default:
+                //Ordinal plus one, zero being null.
+                long constants = ((DeclaredType) type).asElement().getEnclosedElements().stream()
+                        .filter(e -> e.getKind() == ElementKind.ENUM_CONSTANT).count();
+                return Long.SIZE - Long.numberOfLeadingZeros(constants);
+        }
+    }
+    
+    //Expression of the field value as the bits of the packed form, shifted to its slot.
+    private String packed(VariableElement field, int shift) {
+        String value = "state." + field.getSimpleName();
+        TypeMirror type = field.asType();
+        String bits;
+        switch (type.getKind()) {
+            case BOOLEAN:
+                bits = String.format("(%s ? 1L : 0L)", value);
+                break;
+            case BYTE:
+                bits = String.format("((long) %s & 0xFFL)", value);
+                break;
+            case SHORT:
+                bits = String.format("((long) %s & 0xFFFFL)", value);
+                break;
+            case CHAR:
+                bits = String.format("((long) %s)", value);
+                break;
+            case INT:
+                bits = String.format("((long) %s & 0xFFFFFFFFL)", value);
+                break;
+            case FLOAT:
+                bits = String.format("((long) Float.floatToIntBits(%s) & 0xFFFFFFFFL)", value);
+                break;
+            case DOUBLE:
+                bits = String.format("Double.doubleToLongBits(%s)", value);
+                break;
+            case LONG:
+                bits = value;
+                break;
+            default:
+                bits = String.format("(%1$s == null ? 0L : %1$s.ordinal() + 1L)", value);
+        }
+        return shift == 0 ? bits : String.format("(%s << %d)", bits, shift);
+    }
+    
+    //Expression of the field value unpacked from its slot in the given word.
+    private String unpacked(VariableElement field, String word, int shift) {
+        TypeMirror type = field.asType();
+        String bits = shift == 0 ? word : String.format("(%s >>> %d)", word, shift);
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return String.format("(%s & 1L) != 0", bits);
+            case BYTE:
+                return String.format("(byte) %s", bits);
+            case SHORT:
+                return String.format("(short) %s", bits);
+            case CHAR:
+                return String.format("(char) %s", bits);
+            case INT:
+                return String.format("(int) %s", bits);
+            case FLOAT:
+                return String.format("Float.intBitsToFloat((int) %s)", bits);
+            case DOUBLE:
+                return String.format("Double.longBitsToDouble(%s)", bits);
+            case LONG:
+                return bits;
+            default:
+                long mask = (1L << bits(type)) - 1;
+                return String.format("(%1$s & %2$dL) == 0 ? null : %3$s.values()[(int) (%1$s & %2$dL) - 1]", bits, mask, type);
+        }
+    }
+    
+    //Writes a field of a primitive or enum type.
+    private void write(StringBuilder src, VariableElement field) {
+        String value = "state." + field.getSimpleName();
+        TypeMirror type = field.asType();
+        if (type.getKind().isPrimitive())
+            src.append("        out.write").append(dataMethod(type)).append("(").append(value).append(");\n");
+        else
+            src.append("        out.writeInt(").append(value).append(" == null ? -1 : ").append(value).append(".ordinal());\n");
+    }
+    
+    //Reads a field of a primitive or enum type into a local variable.
+    private void read(StringBuilder src, VariableElement field, String local) {
+        TypeMirror type = field.asType();
+        src.append("        ").append(type).append(" ").append(local);
+        if (type.getKind().isPrimitive()) {
+            src.append(" = in.read").append(dataMethod(type)).append("();\n");
+        } else {
+            src.append(" = null;\n");
+            src.append("        int ").append(local).append("Ordinal = in.readInt();\n");
+            src.append("        if (").append(local).append("Ordinal >= 0)\n");
+            src.append("            ").append(local).append(" = ").append(type).append(".values()[").append(local).append("Ordinal];\n");
+        }
+    }
+    
+    //Suffix of the DataInput/DataOutput methods of a primitive type, e.g. "Int" for int.
+    private static String dataMethod(TypeMirror primitive) {
+        String name = primitive.getKind().name().toLowerCase(Locale.ROOT);
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+    
+    private static boolean isPrimitiveArray(TypeMirror type) {
+        return type.getKind() == TypeKind.ARRAY && ((ArrayType) type).getComponentType().getKind().isPrimitive();
+    }
+    
+    private static boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+    }
+    
+    private void error(Element element, String format, Object... args) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * <p>
+ * Contains the annotation processor which generates the identity and the codec
+ * of the states annotated with {@code SearchState}.
+ * </p>
+ * 
+ * <p>
+ * The processor is registered as a service of this API, thus it is discovered by the
+ * Java compiler from the class path, and is not meant to be used directly.
+ * </p>
+ */
+package io.github.repomaestro.searching.processor;